@@ -1,30 +1,29 @@
 package com.example.dscommerce.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.time.Duration;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
@@ -45,11 +44,13 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.example.dscommerce.config.authorization.BoundedInMemoryOAuth2AuthorizationService;
 import com.example.dscommerce.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.example.dscommerce.config.customgrant.CustomPasswordAuthenticationProvider;
+import com.example.dscommerce.config.customgrant.CustomPasswordErrorResponseHandler;
+import com.example.dscommerce.config.customgrant.PasswordVerifier;
 import com.example.dscommerce.config.customgrant.CustomUserAuthorities;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.example.dscommerce.config.jwk.SigningKeyManager;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
@@ -65,11 +66,36 @@ public class AuthorizationServerConfig {
   @Value("${security.jwt.duration}")
   private Integer jwtDurationSeconds;
 
+  @Value("${security.authorization-store.type:memory}")
+  private String authorizationStoreType;
+
+  @Value("${security.authorization-store.max-size:100000}")
+  private long authorizationStoreMaxSize;
+
+  @Value("${security.password.bcrypt-strength:10}")
+  private int bcryptStrength;
+
+  @Value("${security.login.verifier-threads:0}")
+  private int verifierThreads;
+
+  @Value("${security.login.verifier-queue-capacity:200}")
+  private int verifierQueueCapacity;
+
+  @Value("${security.login.verifier-timeout:5s}")
+  private Duration verifierTimeout;
+
 //  @Autowired
   private final UserDetailsService userDetailsService;
+  private final JdbcOperations jdbcOperations;
+  private final UserDetailsPasswordService userDetailsPasswordService;
+  private final SigningKeyManager signingKeyManager;
 
-  public AuthorizationServerConfig(UserDetailsService userDetailsService) {
+  public AuthorizationServerConfig(UserDetailsService userDetailsService, UserDetailsPasswordService userDetailsPasswordService,
+                                   JdbcOperations jdbcOperations, SigningKeyManager signingKeyManager) {
     this.userDetailsService = userDetailsService;
+    this.userDetailsPasswordService = userDetailsPasswordService;
+    this.jdbcOperations = jdbcOperations;
+    this.signingKeyManager = signingKeyManager;
   }
 
   @Bean
@@ -82,16 +108,25 @@ public class AuthorizationServerConfig {
     http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
       .tokenEndpoint(tokenEndpoint -> tokenEndpoint
         .accessTokenRequestConverter(new CustomPasswordAuthenticationConverter())
-        .authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordEncoder())));
+        .authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordVerifier(), userDetailsPasswordService))
+        .errorResponseHandler(new CustomPasswordErrorResponseHandler()));
     http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
     // @formatter:on
 
     return http.build();
   }
 
+  /**
+   * jdbc: autorizações em oauth2_authorization, compartilhadas entre réplicas (expiradas são
+   * removidas pelo ExpiredAuthorizationPurgeJob); memory: mapa local limitado, com TTL igual
+   * à duração do token
+   */
   @Bean
   public OAuth2AuthorizationService authorizationService() {
-    return new InMemoryOAuth2AuthorizationService();
+    if ("jdbc".equals(authorizationStoreType)) {
+      return new JdbcOAuth2AuthorizationService(jdbcOperations, registeredClientRepository());
+    }
+    return new BoundedInMemoryOAuth2AuthorizationService(authorizationStoreMaxSize, Duration.ofSeconds(jwtDurationSeconds));
   }
 
   @Bean
@@ -99,16 +134,31 @@ public class AuthorizationServerConfig {
     return new InMemoryOAuth2AuthorizationConsentService();
   }
 
+  /**
+   * Hashes novos usam "{bcrypt}" no custo configurado; hashes antigos sem prefixo continuam
+   * aceitos e são regravados no custo atual no próximo login (upgradeEncoding)
+   */
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+    passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return passwordEncoder;
+  }
+
+  // Pool dedicado ao BCrypt do login; 0 threads = uma por núcleo
+  @Bean
+  public PasswordVerifier passwordVerifier() {
+    int threads = verifierThreads > 0 ? verifierThreads : Runtime.getRuntime().availableProcessors();
+    return new PasswordVerifier(passwordEncoder(), threads, verifierQueueCapacity, verifierTimeout);
   }
 
   @Bean
   public RegisteredClientRepository registeredClientRepository() {
     // @formatter:off
+    // id estável: autorizações persistidas referenciam o cliente por ele entre restarts e réplicas
     RegisteredClient registeredClient = RegisteredClient
-      .withId(UUID.randomUUID().toString())
+      .withId(clientId)
       .clientId(clientId)
       .clientSecret(passwordEncoder().encode(clientSecret))
       .scope("read")
@@ -144,7 +194,7 @@ public class AuthorizationServerConfig {
 
   @Bean
   public OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator() {
-    NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource());
+    NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(signingKeyManager.signingKey());
     JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
     jwtGenerator.setJwtCustomizer(tokenCustomizer());
     OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
@@ -163,6 +213,9 @@ public class AuthorizationServerConfig {
           .claim("authorities", authorities)
           .claim("username", user.getUsername());
         // @formatter:on
+        if (user.getUserId() != null) {
+          context.getClaims().claim("user_id", user.getUserId());
+        }
       }
     };
   }
@@ -172,29 +225,9 @@ public class AuthorizationServerConfig {
     return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
   }
 
+  // Chaves publicadas (ativa + em período de carência), persistidas e rotacionadas pelo SigningKeyManager
   @Bean
   public JWKSource<SecurityContext> jwkSource() {
-    RSAKey rsaKey = generateRsa();
-    JWKSet jwkSet = new JWKSet(rsaKey);
-    return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
-  }
-
-  private static RSAKey generateRsa() {
-    KeyPair keyPair = generateRsaKey();
-    RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-    RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-    return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
-  }
-
-  private static KeyPair generateRsaKey() {
-    KeyPair keyPair;
-    try {
-      KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-      keyPairGenerator.initialize(2048);
-      keyPair = keyPairGenerator.generateKeyPair();
-    } catch (Exception ex) {
-      throw new IllegalStateException(ex);
-    }
-    return keyPair;
+    return signingKeyManager.verificationKeys();
   }
 }
@@ -0,0 +1,106 @@
+package com.example.dscommerce.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches locais (Caffeine) da aplicação, cada um com tamanho e expiração próprios
+ */
+@Configuration
+public class CacheConfig {
+
+  public static final String PRODUCT_COUNT = "productCount";
+  public static final String PRODUCT_DETAIL = "productDetail";
+  public static final String AUTHENTICATED_USER = "authenticatedUser";
+  public static final String USER_CREDENTIALS = "userCredentials";
+  public static final String IDEMPOTENT_RESPONSES = "idempotentResponses";
+
+  @Value("${cache.product-count.ttl:30s}")
+  private Duration productCountTtl;
+
+  @Value("${cache.product-detail.max-size:10000}")
+  private long productDetailMaxSize;
+
+  @Value("${cache.product-detail.ttl:10m}")
+  private Duration productDetailTtl;
+
+  @Value("${cache.product-detail.negative-ttl:5s}")
+  private Duration productDetailNegativeTtl;
+
+  @Value("${cache.authenticated-user.max-size:10000}")
+  private long authenticatedUserMaxSize;
+
+  @Value("${cache.authenticated-user.ttl:15s}")
+  private Duration authenticatedUserTtl;
+
+  @Value("${cache.user-credentials.ttl:30s}")
+  private Duration userCredentialsTtl;
+
+  @Value("${cache.idempotent-responses.max-size:10000}")
+  private long idempotentResponsesMaxSize;
+
+  @Value("${idempotency.key-ttl:24h}")
+  private Duration idempotencyKeyTtl;
+
+  @Bean
+  public CacheManager cacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.registerCustomCache(PRODUCT_COUNT, Caffeine.newBuilder()
+      .expireAfterWrite(productCountTtl)
+      .maximumSize(10_000)
+      .recordStats()
+      .build());
+    cacheManager.registerCustomCache(PRODUCT_DETAIL, Caffeine.newBuilder()
+      .maximumSize(productDetailMaxSize)
+      .expireAfter(ttlByPresence(productDetailTtl, productDetailNegativeTtl))
+      .recordStats()
+      .build());
+    cacheManager.registerCustomCache(AUTHENTICATED_USER, Caffeine.newBuilder()
+      .maximumSize(authenticatedUserMaxSize)
+      .expireAfterWrite(authenticatedUserTtl)
+      .recordStats()
+      .build());
+    cacheManager.registerCustomCache(USER_CREDENTIALS, Caffeine.newBuilder()
+      .maximumSize(authenticatedUserMaxSize)
+      .expireAfterWrite(userCredentialsTtl)
+      .recordStats()
+      .build());
+    cacheManager.registerCustomCache(IDEMPOTENT_RESPONSES, Caffeine.newBuilder()
+      .maximumSize(idempotentResponsesMaxSize)
+      .expireAfterWrite(idempotencyKeyTtl)
+      .recordStats()
+      .build());
+    return cacheManager;
+  }
+
+  /**
+   * Buscas sem resultado são guardadas como NullValue e expiram bem antes das entradas com valor,
+   * para que ids inexistentes não batam no banco a cada requisição nem fiquem "ausentes" por muito tempo
+   */
+  private static Expiry<Object, Object> ttlByPresence(Duration ttl, Duration negativeTtl) {
+    return new Expiry<>() {
+      @Override
+      public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return (value instanceof NullValue ? negativeTtl : ttl).toNanos();
+      }
+
+      @Override
+      public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+      }
+
+      @Override
+      public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+      }
+    };
+  }
+}
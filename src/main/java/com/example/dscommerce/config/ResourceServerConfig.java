@@ -47,7 +47,10 @@ public class ResourceServerConfig {
   public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http) throws Exception {
 
     http.csrf(AbstractHttpConfigurer::disable);
-    http.authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll());
+    http.authorizeHttpRequests(authorize -> authorize
+      .requestMatchers("/actuator/health/**").permitAll()
+      .requestMatchers("/actuator/**").hasRole("ADMIN")
+      .anyRequest().permitAll());
     http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
     http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
     return http.build();
@@ -73,7 +76,8 @@ public class ResourceServerConfig {
     corsConfig.setAllowedOriginPatterns(Arrays.asList(origins));
     corsConfig.setAllowedMethods(Arrays.asList("POST", "GET", "PUT", "DELETE", "PATCH"));
     corsConfig.setAllowCredentials(true);
-    corsConfig.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+    corsConfig.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "If-None-Match", "Idempotency-Key"));
+    corsConfig.setExposedHeaders(Arrays.asList("ETag"));
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", corsConfig);
@@ -0,0 +1,120 @@
+package com.example.dscommerce.config.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.oauth2.core.AbstractOAuth2Token;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OAuth2AuthorizationService em memória com tamanho máximo e expiração, para uma única instância.
+ *
+ * O InMemoryOAuth2AuthorizationService guarda toda autorização até o restart; aqui cada entrada
+ * expira junto com o access token e o total é limitado, então o heap não cresce com o volume de
+ * logins. Um índice valor do token -> id da autorização resolve findByToken sem varrer o mapa.
+ */
+public class BoundedInMemoryOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+  private final Cache<String, OAuth2Authorization> authorizations;
+  private final Cache<String, String> tokenIndex;
+
+  public BoundedInMemoryOAuth2AuthorizationService(long maxSize, Duration ttl) {
+    Assert.isTrue(maxSize > 0, "maxSize must be greater than zero");
+    Assert.notNull(ttl, "ttl cannot be null");
+    this.authorizations = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    // uma autorização pode ter mais de um token (access/refresh/code/state)
+    this.tokenIndex = Caffeine.newBuilder().maximumSize(maxSize * 4).expireAfterWrite(ttl).build();
+  }
+
+  @Override
+  public void save(OAuth2Authorization authorization) {
+    Assert.notNull(authorization, "authorization cannot be null");
+    authorizations.put(authorization.getId(), authorization);
+    for (String token : tokenValues(authorization)) {
+      tokenIndex.put(token, authorization.getId());
+    }
+  }
+
+  @Override
+  public void remove(OAuth2Authorization authorization) {
+    Assert.notNull(authorization, "authorization cannot be null");
+    authorizations.invalidate(authorization.getId());
+    for (String token : tokenValues(authorization)) {
+      tokenIndex.invalidate(token);
+    }
+  }
+
+  @Override
+  public OAuth2Authorization findById(String id) {
+    Assert.hasText(id, "id cannot be empty");
+    return authorizations.getIfPresent(id);
+  }
+
+  @Override
+  public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+    Assert.hasText(token, "token cannot be empty");
+    String id = tokenIndex.getIfPresent(token);
+    if (id == null) {
+      return null;
+    }
+    OAuth2Authorization authorization = authorizations.getIfPresent(id);
+    return authorization != null && hasToken(authorization, token, tokenType) ? authorization : null;
+  }
+
+  // Quantidade atual de autorizações, após aplicar as remoções pendentes por tamanho/expiração
+  long size() {
+    authorizations.cleanUp();
+    return authorizations.estimatedSize();
+  }
+
+  private static boolean hasToken(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+    if (tokenType == null) {
+      return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE)) || authorization.getToken(token) != null;
+    }
+    if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+      return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+    }
+    if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+      return matches(authorization.getToken(OAuth2AuthorizationCode.class), token);
+    }
+    if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+      return matches(authorization.getAccessToken(), token);
+    }
+    if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+      return matches(authorization.getRefreshToken(), token);
+    }
+    return authorization.getToken(token) != null;
+  }
+
+  private static boolean matches(OAuth2Authorization.Token<? extends AbstractOAuth2Token> authorizationToken, String token) {
+    return authorizationToken != null && authorizationToken.getToken().getTokenValue().equals(token);
+  }
+
+  private static List<String> tokenValues(OAuth2Authorization authorization) {
+    List<String> values = new ArrayList<>();
+    String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+    if (state != null) {
+      values.add(state);
+    }
+    addTokenValue(values, authorization.getToken(OAuth2AuthorizationCode.class));
+    addTokenValue(values, authorization.getAccessToken());
+    addTokenValue(values, authorization.getRefreshToken());
+    addTokenValue(values, authorization.getToken(OidcIdToken.class));
+    return values;
+  }
+
+  private static void addTokenValue(List<String> values, OAuth2Authorization.Token<? extends AbstractOAuth2Token> token) {
+    if (token != null) {
+      values.add(token.getToken().getTokenValue());
+    }
+  }
+}
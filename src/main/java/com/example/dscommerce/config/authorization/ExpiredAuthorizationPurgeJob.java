@@ -0,0 +1,46 @@
+package com.example.dscommerce.config.authorization;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Remove periodicamente de oauth2_authorization as autorizações cujos tokens já expiraram
+ * (o JdbcOAuth2AuthorizationService nunca apaga nada sozinho). Apaga em lotes para não
+ * segurar locks longos na tabela enquanto logins continuam gravando nela.
+ */
+@Component
+@ConditionalOnProperty(name = "security.authorization-store.type", havingValue = "jdbc")
+public class ExpiredAuthorizationPurgeJob {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final String DELETE_EXPIRED_BATCH = """
+    DELETE FROM oauth2_authorization WHERE id IN (
+      SELECT id FROM oauth2_authorization
+      WHERE (access_token_expires_at IS NULL OR access_token_expires_at < ?)
+      AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?)
+      AND (authorization_code_expires_at IS NULL OR authorization_code_expires_at < ?)
+      LIMIT ?
+    )
+    """;
+
+  private final JdbcOperations jdbcOperations;
+
+  public ExpiredAuthorizationPurgeJob(JdbcOperations jdbcOperations) {
+    this.jdbcOperations = jdbcOperations;
+  }
+
+  @Scheduled(fixedDelayString = "${security.authorization-store.purge-interval:10m}")
+  public void purgeExpired() {
+    Timestamp now = Timestamp.from(Instant.now());
+    int deleted;
+    do {
+      deleted = jdbcOperations.update(DELETE_EXPIRED_BATCH, now, now, now, BATCH_SIZE);
+    } while (deleted == BATCH_SIZE);
+  }
+}
@@ -1,20 +1,23 @@
 package com.example.dscommerce.config.customgrant;
 
 import java.security.Principal;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.example.dscommerce.config.customgrant.CustomPasswordAuthenticationToken;
 import com.example.dscommerce.config.customgrant.CustomUserAuthorities;
+import com.example.dscommerce.entities.User;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClaimAccessor;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
@@ -40,23 +43,24 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
   private final OAuth2AuthorizationService authorizationService;
   private final UserDetailsService userDetailsService;
   private final OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator;
-  private final PasswordEncoder passwordEncoder;
-  private String username = "";
-  private String password = "";
-  private Set<String> authorizedScopes = new HashSet<>();
+  private final PasswordVerifier passwordVerifier;
+  private final UserDetailsPasswordService userDetailsPasswordService;
 
   public CustomPasswordAuthenticationProvider(OAuth2AuthorizationService authorizationService,
                                               OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator,
-                                              UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+                                              UserDetailsService userDetailsService, PasswordVerifier passwordVerifier,
+                                              UserDetailsPasswordService userDetailsPasswordService) {
 
     Assert.notNull(authorizationService, "authorizationService cannot be null");
     Assert.notNull(tokenGenerator, "TokenGenerator cannot be null");
     Assert.notNull(userDetailsService, "UserDetailsService cannot be null");
-    Assert.notNull(passwordEncoder, "PasswordEncoder cannot be null");
+    Assert.notNull(passwordVerifier, "PasswordVerifier cannot be null");
+    Assert.notNull(userDetailsPasswordService, "UserDetailsPasswordService cannot be null");
     this.authorizationService = authorizationService;
     this.tokenGenerator = tokenGenerator;
     this.userDetailsService = userDetailsService;
-    this.passwordEncoder = passwordEncoder;
+    this.passwordVerifier = passwordVerifier;
+    this.userDetailsPasswordService = userDetailsPasswordService;
   }
 
   @Override
@@ -65,8 +69,9 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
     CustomPasswordAuthenticationToken customPasswordAuthenticationToken = (CustomPasswordAuthenticationToken) authentication;
     OAuth2ClientAuthenticationToken clientPrincipal = getAuthenticatedClientElseThrowInvalidClient(customPasswordAuthenticationToken);
     RegisteredClient registeredClient = clientPrincipal.getRegisteredClient();
-    username = customPasswordAuthenticationToken.getUsername();
-    password = customPasswordAuthenticationToken.getPassword();
+    // Estado do login em variáveis locais: o provider é compartilhado entre requisições concorrentes
+    String username = customPasswordAuthenticationToken.getUsername();
+    String password = customPasswordAuthenticationToken.getPassword();
 
     UserDetails user = null;
     try {
@@ -75,18 +80,22 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
       throw new OAuth2AuthenticationException("Invalid credentials");
     }
 
-    if (!passwordEncoder.matches(password, user.getPassword()) || !user.getUsername().equals(username)) {
+    if (!passwordVerifier.matches(password, user.getPassword()) || !user.getUsername().equals(username)) {
       throw new OAuth2AuthenticationException("Invalid credentials");
     }
+    UserDetails authenticatedUser = user;
+    passwordVerifier.upgradeIfNeeded(password, user.getPassword(),
+      newPassword -> userDetailsPasswordService.updatePassword(authenticatedUser, newPassword));
 
-    authorizedScopes = user.getAuthorities().stream()
+    Set<String> authorizedScopes = user.getAuthorities().stream()
       .map(scope -> scope.getAuthority())
       .filter(scope -> registeredClient.getScopes().contains(scope))
       .collect(Collectors.toSet());
 
     //-----------Create a new Security Context Holder Context----------
     OAuth2ClientAuthenticationToken oAuth2ClientAuthenticationToken = (OAuth2ClientAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
-    CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(username, user.getAuthorities());
+    Long userId = user instanceof User entity ? entity.getId() : null;
+    CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(username, userId, user.getAuthorities());
     oAuth2ClientAuthenticationToken.setDetails(customPasswordUser);
 
     var newcontext = SecurityContextHolder.createEmptyContext();
@@ -102,9 +111,15 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
       .authorizationGrantType(new AuthorizationGrantType("password"))
       .authorizationGrant(customPasswordAuthenticationToken);
 
+    // Principal do usuário com tipos simples, serializável pelo JdbcOAuth2AuthorizationService
+    List<SimpleGrantedAuthority> authorities = user.getAuthorities().stream()
+      .map(authority -> new SimpleGrantedAuthority(authority.getAuthority()))
+      .toList();
+    Authentication userPrincipal = UsernamePasswordAuthenticationToken.authenticated(username, null, authorities);
+
     OAuth2Authorization.Builder authorizationBuilder = OAuth2Authorization.withRegisteredClient(registeredClient)
-      .attribute(Principal.class.getName(), clientPrincipal)
-      .principalName(clientPrincipal.getName())
+      .attribute(Principal.class.getName(), userPrincipal)
+      .principalName(username)
       .authorizationGrantType(new AuthorizationGrantType("password"))
       .authorizedScopes(authorizedScopes);
 
@@ -7,6 +7,7 @@ import org.springframework.security.core.GrantedAuthority;
 public class CustomUserAuthorities {
 
   private String username;
+  private Long userId;
   private Collection<? extends GrantedAuthority> authorities;
 
   public CustomUserAuthorities(String username, Collection<? extends GrantedAuthority> authorities) {
@@ -14,10 +15,20 @@ public class CustomUserAuthorities {
     this.authorities = authorities;
   }
 
+  public CustomUserAuthorities(String username, Long userId, Collection<? extends GrantedAuthority> authorities) {
+    this.username = username;
+    this.userId = userId;
+    this.authorities = authorities;
+  }
+
   public String getUsername() {
     return username;
   }
 
+  public Long getUserId() {
+    return userId;
+  }
+
   public Collection<? extends GrantedAuthority> getAuthorities() {
     return authorities;
   }
@@ -0,0 +1,88 @@
+package com.example.dscommerce.config.customgrant;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executa a verificação de senha (BCrypt, cara em CPU) em um pool dedicado e limitado.
+ *
+ * Com o pool e a fila cheios o login é recusado na hora com temporarily_unavailable (HTTP 429),
+ * em vez de empilhar threads do servidor esperando CPU durante um pico de logins.
+ */
+public class PasswordVerifier implements AutoCloseable {
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final Duration timeout;
+
+  public PasswordVerifier(PasswordEncoder passwordEncoder, int threads, int queueCapacity, Duration timeout) {
+    this.passwordEncoder = passwordEncoder;
+    this.timeout = timeout;
+    AtomicInteger count = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+        Thread thread = new Thread(runnable, "password-verifier-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public boolean matches(String rawPassword, String encodedPassword) {
+    Future<Boolean> result;
+    try {
+      result = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    } catch (RejectedExecutionException e) {
+      throw overloaded();
+    }
+
+    try {
+      return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      result.cancel(true);
+      throw overloaded();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw overloaded();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Recalcula o hash no custo atual fora da requisição; descartado se o pool estiver cheio
+   * (a atualização é tentada de novo no próximo login)
+   */
+  public void upgradeIfNeeded(String rawPassword, String encodedPassword, Consumer<String> newPasswordHandler) {
+    if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+      return;
+    }
+    try {
+      executor.execute(() -> newPasswordHandler.accept(passwordEncoder.encode(rawPassword)));
+    } catch (RejectedExecutionException e) {
+      // sem capacidade agora: mantém o hash atual
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private static OAuth2AuthenticationException overloaded() {
+    return new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE,
+      "Too many login attempts in progress, try again shortly", null));
+  }
+}
@@ -0,0 +1,242 @@
+package com.example.dscommerce.config.jwk;
+
+import com.example.dscommerce.entities.SigningKey;
+import com.example.dscommerce.repositories.SigningKeyRepository;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chaves de assinatura dos JWTs persistidas em tb_signing_key, compartilhadas entre réplicas
+ * e preservadas entre deploys.
+ *
+ * - a chave mais recente é a única usada para assinar
+ * - as anteriores continuam publicadas no JWKS (e aceitas na validação) por um período de
+ *   carência após serem substituídas, para que tokens já emitidos sigam válidos até expirar
+ * - a rotação é verificada periodicamente; um kid desconhecido (chave criada por outra réplica)
+ *   força uma releitura do banco, limitada a uma a cada poucos segundos
+ * - senha e salt da cifra não têm padrão fora do perfil test: sem eles a aplicação não sobe
+ */
+@Component
+public class SigningKeyManager {
+
+  private static final Duration UNKNOWN_KID_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+  private final SigningKeyRepository signingKeyRepository;
+  private final String encryptionPassword;
+  private final String encryptionSalt;
+  private final Duration rotationPeriod;
+  // deve cobrir a duração do token mais o intervalo de verificação da rotação
+  private final Duration gracePeriod;
+  private final Clock clock;
+
+  // ReentrantLock em vez de synchronized: a releitura faz JDBC e não deve fixar (pin) virtual threads
+  private final ReentrantLock reloadLock = new ReentrantLock();
+  private BytesEncryptor encryptor;
+  private volatile KeySnapshot keys;
+  private volatile Instant lastReload = Instant.EPOCH;
+
+  @Autowired
+  public SigningKeyManager(SigningKeyRepository signingKeyRepository,
+                           @Value("${security.jwt.key-encryption.password:}") String encryptionPassword,
+                           @Value("${security.jwt.key-encryption.salt:}") String encryptionSalt,
+                           @Value("${security.jwt.key-rotation.period:30d}") Duration rotationPeriod,
+                           @Value("${security.jwt.key-rotation.grace-period:48h}") Duration gracePeriod) {
+    this(signingKeyRepository, encryptionPassword, encryptionSalt, rotationPeriod, gracePeriod, Clock.systemUTC());
+  }
+
+  SigningKeyManager(SigningKeyRepository signingKeyRepository, String encryptionPassword, String encryptionSalt,
+                    Duration rotationPeriod, Duration gracePeriod, Clock clock) {
+    this.signingKeyRepository = signingKeyRepository;
+    this.encryptionPassword = encryptionPassword;
+    this.encryptionSalt = encryptionSalt;
+    this.rotationPeriod = rotationPeriod;
+    this.gracePeriod = gracePeriod;
+    this.clock = clock;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!StringUtils.hasText(encryptionPassword) || !StringUtils.hasText(encryptionSalt)) {
+      throw new IllegalStateException(
+        "JWK_ENCRYPTION_PASSWORD and JWK_ENCRYPTION_SALT must be set to encrypt the JWT signing keys");
+    }
+    encryptor = Encryptors.stronger(encryptionPassword, encryptionSalt);
+    reload();
+    if (keys.active == null) {
+      createKey();
+      reload();
+    }
+  }
+
+  /**
+   * Chaves públicas publicadas, usadas pelo endpoint JWKS e pelo JwtDecoder (busca direta por kid)
+   */
+  public JWKSource<SecurityContext> verificationKeys() {
+    return (selector, context) -> {
+      Set<String> kids = selector.getMatcher().getKeyIDs();
+      if (kids != null && kids.size() == 1) {
+        JWK key = findByKid(kids.iterator().next());
+        return key != null && selector.getMatcher().matches(key) ? List.of(key) : List.of();
+      }
+      return selector.select(keys.published);
+    };
+  }
+
+  /**
+   * Somente a chave ativa (com a parte privada), usada pelo JwtEncoder
+   */
+  public JWKSource<SecurityContext> signingKey() {
+    return (selector, context) -> {
+      RSAKey active = keys.active;
+      return active == null ? List.of() : selector.select(new JWKSet(active));
+    };
+  }
+
+  @Scheduled(fixedDelayString = "${security.jwt.key-rotation.check-interval:1h}",
+    initialDelayString = "${security.jwt.key-rotation.check-interval:1h}")
+  public void rotateIfDue() {
+    reload();
+    Instant now = clock.instant();
+    // sem chave ativa (tabela esvaziada por fora) uma nova é criada em vez de falhar
+    if (keys.active == null || keys.activeCreatedAt.plus(rotationPeriod).isBefore(now)) {
+      createKey();
+    }
+    signingKeyRepository.deleteAllById(expiredKeyIds(now));
+    reload();
+  }
+
+  private JWK findByKid(String kid) {
+    JWK key = keys.byKid.get(kid);
+    if (key == null && lastReload.plus(UNKNOWN_KID_RELOAD_INTERVAL).isBefore(clock.instant())) {
+      reload();
+      key = keys.byKid.get(kid);
+    }
+    return key;
+  }
+
+  // Uma chave deixa de ser publicada quando a sua substituta já tem mais que o período de carência
+  private List<String> expiredKeyIds(Instant now) {
+    List<SigningKey> stored = signingKeyRepository.findAllByOrderByCreatedAtDesc();
+    List<String> expired = new ArrayList<>();
+    for (int i = 1; i < stored.size(); i++) {
+      if (stored.get(i - 1).getCreatedAt().plus(gracePeriod).isBefore(now)) {
+        expired.add(stored.get(i).getId());
+      }
+    }
+    return expired;
+  }
+
+  private void reload() {
+    reloadLock.lock();
+    try {
+      doReload();
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  private void doReload() {
+    Instant now = clock.instant();
+    List<SigningKey> stored = signingKeyRepository.findAllByOrderByCreatedAtDesc();
+
+    RSAKey active = null;
+    Instant activeCreatedAt = null;
+    List<JWK> published = new ArrayList<>();
+    Map<String, JWK> byKid = new HashMap<>();
+    for (int i = 0; i < stored.size(); i++) {
+      SigningKey signingKey = stored.get(i);
+      if (i > 0 && stored.get(i - 1).getCreatedAt().plus(gracePeriod).isBefore(now)) {
+        break;
+      }
+      // só a chave ativa precisa da parte privada decifrada
+      RSAKey rsaKey = toRsaKey(signingKey, i == 0);
+      if (i == 0) {
+        active = rsaKey;
+        activeCreatedAt = signingKey.getCreatedAt();
+      }
+      RSAKey publicKey = rsaKey.toPublicJWK();
+      published.add(publicKey);
+      byKid.put(publicKey.getKeyID(), publicKey);
+    }
+
+    keys = new KeySnapshot(active, activeCreatedAt, new JWKSet(published), Map.copyOf(byKid));
+    lastReload = now;
+  }
+
+  private void createKey() {
+    try {
+      KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+      keyPairGenerator.initialize(2048);
+      KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+      String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+      String privateKey = Base64.getEncoder().encodeToString(encryptor.encrypt(keyPair.getPrivate().getEncoded()));
+      signingKeyRepository.save(new SigningKey(UUID.randomUUID().toString(), publicKey, privateKey, clock.instant()));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private RSAKey toRsaKey(SigningKey signingKey, boolean withPrivateKey) {
+    try {
+      KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+      RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(
+        new X509EncodedKeySpec(Base64.getDecoder().decode(signingKey.getPublicKey())));
+      RSAKey.Builder builder = new RSAKey.Builder(publicKey).keyID(signingKey.getId());
+      if (withPrivateKey) {
+        RSAPrivateKey privateKey = (RSAPrivateKey) keyFactory.generatePrivate(
+          new PKCS8EncodedKeySpec(encryptor.decrypt(Base64.getDecoder().decode(signingKey.getPrivateKey()))));
+        builder.privateKey(privateKey);
+      }
+      return builder.build();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class KeySnapshot {
+
+    private final RSAKey active;
+    private final Instant activeCreatedAt;
+    private final JWKSet published;
+    private final Map<String, JWK> byKid;
+
+    private KeySnapshot(RSAKey active, Instant activeCreatedAt, JWKSet published, Map<String, JWK> byKid) {
+      this.active = active;
+      this.activeCreatedAt = activeCreatedAt;
+      this.published = published;
+      this.byKid = byKid;
+    }
+  }
+}
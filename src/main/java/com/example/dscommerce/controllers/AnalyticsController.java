@@ -0,0 +1,62 @@
+package com.example.dscommerce.controllers;
+
+import com.example.dscommerce.dto.CategorySalesDTO;
+import com.example.dscommerce.dto.DailySalesDTO;
+import com.example.dscommerce.dto.ProductSalesDTO;
+import com.example.dscommerce.services.analytics.SalesAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/analytics/sales")
+public class AnalyticsController {
+
+  private final SalesAnalyticsService salesAnalyticsService;
+
+  public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+    this.salesAnalyticsService = salesAnalyticsService;
+  }
+
+  // Ordenados pela receita (pedidos não cancelados); paidUnits/paidRevenue só dos pagos
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @GetMapping(value = "/products")
+  public ResponseEntity<List<ProductSalesDTO>> findTopProducts(@RequestParam(name = "limit", defaultValue = "50") int limit) {
+    List<ProductSalesDTO> list = salesAnalyticsService.findTopProducts(limit);
+    return ResponseEntity.ok(list);
+  }
+
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @GetMapping(value = "/categories")
+  public ResponseEntity<List<CategorySalesDTO>> findTopCategories(@RequestParam(name = "limit", defaultValue = "50") int limit) {
+    List<CategorySalesDTO> list = salesAnalyticsService.findTopCategories(limit);
+    return ResponseEntity.ok(list);
+  }
+
+  // from/to em ISO-8601 (yyyy-MM-dd, UTC), ambos inclusivos
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @GetMapping(value = "/days")
+  public ResponseEntity<List<DailySalesDTO>> findDays(
+    @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+  ) {
+    List<DailySalesDTO> list = salesAnalyticsService.findDays(from, to);
+    return ResponseEntity.ok(list);
+  }
+
+  // Recalcula os rollups a partir dos pedidos (backfill ou correção)
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @PostMapping(value = "/rebuild")
+  public ResponseEntity<Void> rebuild() {
+    salesAnalyticsService.rebuild();
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -3,11 +3,15 @@ package com.example.dscommerce.controllers;
 
 import com.example.dscommerce.dto.CategoryDTO;
 import com.example.dscommerce.services.CategoryService;
+import com.example.dscommerce.services.CategoryService.CategorySnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,13 +20,20 @@ public class CategoryController {
 
   private final CategoryService categoryService;
 
+  @Value("${categories.cache.max-age:60s}")
+  private Duration maxAge;
+
   public CategoryController(CategoryService categoryService) {
     this.categoryService = categoryService;
   }
 
+  // Com If-None-Match igual ao ETag atual, o Spring responde 304 sem corpo
   @GetMapping
   public ResponseEntity<List<CategoryDTO>> findAll() {
-    List<CategoryDTO> list = categoryService.findAll();
-    return ResponseEntity.ok(list);
+    CategorySnapshot snapshot = categoryService.snapshot();
+    return ResponseEntity.ok()
+      .eTag(snapshot.getETag())
+      .cacheControl(CacheControl.maxAge(maxAge).cachePublic().mustRevalidate())
+      .body(snapshot.getCategories());
   }
 }
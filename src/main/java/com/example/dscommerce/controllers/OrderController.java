@@ -1,20 +1,31 @@
 package com.example.dscommerce.controllers;
 
 
+import com.example.dscommerce.dto.CursorPageDTO;
 import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderStatusDTO;
+import com.example.dscommerce.dto.OrderSummaryDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.dto.PaymentDTO;
 import com.example.dscommerce.services.OrderService;
+import com.example.dscommerce.services.OrderStatusService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Instant;
 
 
 @RestController
@@ -22,9 +33,30 @@ import java.net.URI;
 public class OrderController {
 
   private final OrderService orderService;
+  private final OrderStatusService orderStatusService;
 
-  public OrderController(OrderService orderService) {
+  public OrderController(OrderService orderService, OrderStatusService orderStatusService) {
     this.orderService = orderService;
+    this.orderStatusService = orderStatusService;
+  }
+
+  // Cliente: os próprios pedidos. Admin: todos, ou os de clientId. from/to em ISO-8601 (from inclusivo, to exclusivo);
+  // minTotal filtra pelo total gravado no pedido. sort=moment (padrão, mais recentes primeiro) ou total (maiores
+  // primeiro); "pedidos acima de X" deve usar sort=total, que lê só a faixa do índice por total
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+  @GetMapping
+  public ResponseEntity<CursorPageDTO<OrderSummaryDTO>> findAll(
+    @RequestParam(name = "clientId", required = false) Long clientId,
+    @RequestParam(name = "status", required = false) OrderStatus status,
+    @RequestParam(name = "from", required = false) Instant from,
+    @RequestParam(name = "to", required = false) Instant to,
+    @RequestParam(name = "minTotal", required = false) BigDecimal minTotal,
+    @RequestParam(name = "sort", defaultValue = "moment") String sort,
+    @RequestParam(name = "cursor", required = false) String cursor,
+    @RequestParam(name = "size", defaultValue = "20") int size
+  ) {
+    CursorPageDTO<OrderSummaryDTO> dto = orderService.findAll(clientId, status, from, to, minTotal, sort, cursor, size);
+    return ResponseEntity.ok(dto);
   }
 
   @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
@@ -34,14 +66,41 @@ public class OrderController {
     return ResponseEntity.ok(dto);
   }
 
+  // Com Idempotency-Key, retentativas com a mesma chave devolvem o pedido criado na primeira chamada.
+  // Em orders.placement.mode=async responde 202 (PENDING) e o pedido é acompanhado em GET /orders/{id}
   @PreAuthorize("hasAnyRole('ROLE_CLIENT')")
   @PostMapping
-  public ResponseEntity<OrderDTO> insert(@Valid @RequestBody OrderDTO orderDTO) {
-    orderDTO = orderService.insert(orderDTO);
+  public ResponseEntity<OrderDTO> insert(@Valid @RequestBody OrderDTO orderDTO,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+    if (orderService.isAsyncPlacement()) {
+      orderDTO = orderService.enqueue(orderDTO, idempotencyKey);
+      return ResponseEntity.accepted().location(locationOf(orderDTO)).body(orderDTO);
+    }
 
-    URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-      .buildAndExpand(orderDTO.getId()).toUri();
+    orderDTO = idempotencyKey == null
+      ? orderService.insert(orderDTO)
+      : orderService.insert(orderDTO, idempotencyKey);
+
+    return ResponseEntity.created(locationOf(orderDTO)).body(orderDTO);
+  }
 
-    return ResponseEntity.created(uri).body(orderDTO);
+  // Confirmação de pagamento; chamadas repetidas devolvem o mesmo pagamento
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+  @PostMapping(value = "/{id}/payment")
+  public ResponseEntity<PaymentDTO> pay(@PathVariable Long id) {
+    PaymentDTO dto = orderStatusService.pay(id);
+    return ResponseEntity.ok(dto);
+  }
+
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @PutMapping(value = "/{id}/status")
+  public ResponseEntity<OrderStatusDTO> changeStatus(@PathVariable Long id, @Valid @RequestBody OrderStatusDTO dto) {
+    dto = orderStatusService.changeStatus(id, dto);
+    return ResponseEntity.ok(dto);
+  }
+
+  private static URI locationOf(OrderDTO orderDTO) {
+    return ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+      .buildAndExpand(orderDTO.getId()).toUri();
   }
 }
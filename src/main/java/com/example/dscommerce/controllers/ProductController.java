@@ -1,12 +1,16 @@
 package com.example.dscommerce.controllers;
 
 
+import com.example.dscommerce.dto.CursorPageDTO;
+import com.example.dscommerce.dto.ImportReportDTO;
 import com.example.dscommerce.dto.ProductDTO;
 import com.example.dscommerce.dto.ProductMinDTO;
 import com.example.dscommerce.services.ProductService;
+import com.example.dscommerce.services.catalog.ProductImportService;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -20,6 +24,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 
@@ -28,9 +34,11 @@ import java.net.URI;
 public class ProductController {
 
   private final ProductService productService;
+  private final ProductImportService productImportService;
 
-  public ProductController(ProductService productService) {
+  public ProductController(ProductService productService, ProductImportService productImportService) {
     this.productService = productService;
+    this.productImportService = productImportService;
   }
 
   @GetMapping(value = "/{id}")
@@ -39,12 +47,25 @@ public class ProductController {
     return ResponseEntity.ok(dto);
   }
 
+  // Por padrão a resposta é uma Page; includeTotal=false dispensa o COUNT e omite totalElements/totalPages (use "last")
   @GetMapping
-  public ResponseEntity<Page<ProductMinDTO>> findAll(
+  public ResponseEntity<Slice<ProductMinDTO>> findAll(
     @RequestParam(name = "name", defaultValue = "") String name,
+    @RequestParam(name = "includeTotal", defaultValue = "true") boolean includeTotal,
     Pageable pageable
   ) {
-    Page<ProductMinDTO> dto = productService.findAll(name, pageable);
+    Slice<ProductMinDTO> dto = productService.findAll(name, pageable, includeTotal);
+    return ResponseEntity.ok(dto);
+  }
+
+  // Modo cursor para scroll infinito: sem total e com custo constante por página
+  @GetMapping(value = "/scroll")
+  public ResponseEntity<CursorPageDTO<ProductMinDTO>> scroll(
+    @RequestParam(name = "name", defaultValue = "") String name,
+    @RequestParam(name = "cursor", required = false) String cursor,
+    @RequestParam(name = "size", defaultValue = "20") int size
+  ) {
+    CursorPageDTO<ProductMinDTO> dto = productService.scroll(name, cursor, size);
     return ResponseEntity.ok(dto);
   }
 
@@ -59,6 +80,22 @@ public class ProductController {
     return ResponseEntity.created(uri).body(productDTO);
   }
 
+  // Importação em lote lida em streaming (CSV com cabeçalho ou NDJSON, UTF-8): linhas com id
+  // atualizam o produto, sem id inserem. Responde 200 com as contagens e as linhas recusadas
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @PostMapping(value = "/import", consumes = "text/csv")
+  public ResponseEntity<ImportReportDTO> importCsv(InputStream body) throws IOException {
+    ImportReportDTO dto = productImportService.importCsv(body);
+    return ResponseEntity.ok(dto);
+  }
+
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<ImportReportDTO> importNdjson(InputStream body) {
+    ImportReportDTO dto = productImportService.importNdjson(body);
+    return ResponseEntity.ok(dto);
+  }
+
   @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
   @PutMapping(value = "/{id}")
   public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO productDTO) {
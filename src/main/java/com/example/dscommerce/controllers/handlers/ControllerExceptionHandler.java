@@ -2,12 +2,17 @@ package com.example.dscommerce.controllers.handlers;
 
 import com.example.dscommerce.dto.CustomError;
 import com.example.dscommerce.dto.ValidationError;
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import com.example.dscommerce.services.exceptions.ConflictException;
 import com.example.dscommerce.services.exceptions.DatabaseException;
 import com.example.dscommerce.services.exceptions.ForbiddenException;
+import com.example.dscommerce.services.exceptions.InsufficientStockException;
 import com.example.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.example.dscommerce.services.exceptions.ServiceUnavailableException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -33,6 +38,42 @@ public class ControllerExceptionHandler {
     return ResponseEntity.status(status).body(err);
   }
 
+  @ExceptionHandler(InsufficientStockException.class)
+  public ResponseEntity<CustomError> insufficientStock(InsufficientStockException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.CONFLICT;
+    CustomError err = new CustomError(Instant.now(), status.value(), e.getMessage(), request.getRequestURI());
+    return ResponseEntity.status(status).body(err);
+  }
+
+  @ExceptionHandler(ConflictException.class)
+  public ResponseEntity<CustomError> conflict(ConflictException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.CONFLICT;
+    CustomError err = new CustomError(Instant.now(), status.value(), e.getMessage(), request.getRequestURI());
+    return ResponseEntity.status(status).body(err);
+  }
+
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<CustomError> badRequest(BadRequestException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+    CustomError err = new CustomError(Instant.now(), status.value(), e.getMessage(), request.getRequestURI());
+    return ResponseEntity.status(status).body(err);
+  }
+
+  // Pool de conexões esgotado (connection-timeout do Hikari): falha rápida em vez de enfileirar
+  @ExceptionHandler(CannotCreateTransactionException.class)
+  public ResponseEntity<CustomError> serviceUnavailable(CannotCreateTransactionException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+    CustomError err = new CustomError(Instant.now(), status.value(), "Service temporarily unavailable", request.getRequestURI());
+    return ResponseEntity.status(status).header("Retry-After", "1").body(err);
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<CustomError> overloaded(ServiceUnavailableException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+    CustomError err = new CustomError(Instant.now(), status.value(), e.getMessage(), request.getRequestURI());
+    return ResponseEntity.status(status).header("Retry-After", "1").body(err);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<CustomError> methodArgumentNotValid(MethodArgumentNotValidException e, HttpServletRequest request) {
     HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
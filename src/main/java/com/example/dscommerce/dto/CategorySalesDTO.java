@@ -0,0 +1,45 @@
+package com.example.dscommerce.dto;
+
+import java.math.BigDecimal;
+
+public class CategorySalesDTO {
+  private Long categoryId;
+  private String name;
+  private Long units;
+  private BigDecimal revenue;
+  private Long paidUnits;
+  private BigDecimal paidRevenue;
+
+  public CategorySalesDTO(Long categoryId, String name, Long units, BigDecimal revenue, Long paidUnits, BigDecimal paidRevenue) {
+    this.categoryId = categoryId;
+    this.name = name;
+    this.units = units;
+    this.revenue = revenue;
+    this.paidUnits = paidUnits;
+    this.paidRevenue = paidRevenue;
+  }
+
+  public Long getCategoryId() {
+    return categoryId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Long getUnits() {
+    return units;
+  }
+
+  public BigDecimal getRevenue() {
+    return revenue;
+  }
+
+  public Long getPaidUnits() {
+    return paidUnits;
+  }
+
+  public BigDecimal getPaidRevenue() {
+    return paidRevenue;
+  }
+}
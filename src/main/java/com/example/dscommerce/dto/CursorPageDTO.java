@@ -0,0 +1,30 @@
+package com.example.dscommerce.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor (keyset): sem total de elementos,
+ * apenas o conteúdo e o token opaco para buscar a próxima página
+ */
+public class CursorPageDTO<T> {
+
+  private final List<T> content;
+  private final String nextCursor;
+
+  public CursorPageDTO(List<T> content, String nextCursor) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean isHasNext() {
+    return nextCursor != null;
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.dscommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DailySalesDTO {
+  private LocalDate date;
+  private Long orders;
+  private Long units;
+  private BigDecimal revenue;
+  private Long paidOrders;
+  private Long paidUnits;
+  private BigDecimal paidRevenue;
+
+  public DailySalesDTO(LocalDate date, Long orders, Long units, BigDecimal revenue,
+                       Long paidOrders, Long paidUnits, BigDecimal paidRevenue) {
+    this.date = date;
+    this.orders = orders;
+    this.units = units;
+    this.revenue = revenue;
+    this.paidOrders = paidOrders;
+    this.paidUnits = paidUnits;
+    this.paidRevenue = paidRevenue;
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  public Long getOrders() {
+    return orders;
+  }
+
+  public Long getUnits() {
+    return units;
+  }
+
+  public BigDecimal getRevenue() {
+    return revenue;
+  }
+
+  public Long getPaidOrders() {
+    return paidOrders;
+  }
+
+  public Long getPaidUnits() {
+    return paidUnits;
+  }
+
+  public BigDecimal getPaidRevenue() {
+    return paidRevenue;
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.dscommerce.dto;
+
+/**
+ * Linha recusada na importação: número do registro no arquivo (a partir de 1, sem o cabeçalho do CSV)
+ */
+public class ImportErrorDTO {
+
+  private final long row;
+  private final Long id;
+  private final String message;
+
+  public ImportErrorDTO(long row, Long id, String message) {
+    this.row = row;
+    this.id = id;
+    this.message = message;
+  }
+
+  public long getRow() {
+    return row;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.dscommerce.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote: contagens e as linhas recusadas
+ * (limitadas a product.import.max-errors; errorsTruncated indica que há mais)
+ */
+public class ImportReportDTO {
+
+  private final long rows;
+  private final long inserted;
+  private final long updated;
+  private final long failed;
+  private final List<ImportErrorDTO> errors;
+
+  public ImportReportDTO(long rows, long inserted, long updated, long failed, List<ImportErrorDTO> errors) {
+    this.rows = rows;
+    this.inserted = inserted;
+    this.updated = updated;
+    this.failed = failed;
+    this.errors = errors;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public long getInserted() {
+    return inserted;
+  }
+
+  public long getUpdated() {
+    return updated;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public List<ImportErrorDTO> getErrors() {
+    return errors;
+  }
+
+  public boolean isErrorsTruncated() {
+    return errors.size() < failed;
+  }
+}
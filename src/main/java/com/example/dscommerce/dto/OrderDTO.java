@@ -1,10 +1,12 @@
 package com.example.dscommerce.dto;
 
+import com.example.dscommerce.entities.Money;
 import com.example.dscommerce.entities.Order;
 import com.example.dscommerce.entities.OrderItem;
 import com.example.dscommerce.entities.OrderStatus;
 import jakarta.validation.constraints.NotEmpty;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,11 +15,16 @@ public class OrderDTO {
   private Long id;
   private Instant moment;
   private OrderStatus status;
+  private Long version;
+  private String cancelReason;
 
   private ClientDTO client;
 
   private PaymentDTO payment;
 
+  // total gravado no pedido; null quando montado sem a entidade (calculado pelos itens)
+  private BigDecimal total;
+
   @NotEmpty(message = "Must have at last one item")
   private List<OrderItemDTO> items = new ArrayList<>();
 
@@ -35,8 +42,11 @@ public class OrderDTO {
     this.id = entity.getId();
     this.moment = entity.getMoment();
     this.status = entity.getStatus();
+    this.version = entity.getVersion();
+    this.cancelReason = entity.getCancelReason();
     this.client = new ClientDTO(entity.getClient());
     this.payment = entity.getPayment() != null ? new PaymentDTO(entity.getPayment()) : null;
+    this.total = entity.getTotal().toBigDecimal();
 
     for (OrderItem item : entity.getItems()) {
       this.items.add(new OrderItemDTO(item));
@@ -55,6 +65,14 @@ public class OrderDTO {
     return status;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public String getCancelReason() {
+    return cancelReason;
+  }
+
   public ClientDTO getClient() {
     return client;
   }
@@ -67,11 +85,14 @@ public class OrderDTO {
     return items;
   }
 
-  public Double getTotal() {
-    double sum = 0.0;
+  public BigDecimal getTotal() {
+    if (total != null) {
+      return total;
+    }
+    long cents = 0;
     for (OrderItemDTO item : items) {
-      sum += item.getSubTotal();
+      cents = Math.addExact(cents, Money.of(item.getPrice()).centsTimes(item.getQuantity()));
     }
-    return sum;
+    return Money.ofCents(cents).toBigDecimal();
   }
 }
@@ -2,16 +2,18 @@ package com.example.dscommerce.dto;
 
 import com.example.dscommerce.entities.OrderItem;
 
+import java.math.BigDecimal;
+
 public class OrderItemDTO {
   private Long productId;
   private String name;
-  private Double price;
+  private BigDecimal price;
   private Integer quantity;
   private String imgURL;
 
   public OrderItemDTO() {}
 
-  public OrderItemDTO(Long productId, String name, Double price, Integer quantity, String imgURL) {
+  public OrderItemDTO(Long productId, String name, BigDecimal price, Integer quantity, String imgURL) {
     this.productId = productId;
     this.name = name;
     this.price = price;
@@ -22,7 +24,7 @@ public class OrderItemDTO {
   public OrderItemDTO(OrderItem entity) {
     this.productId = entity.getProduct().getId();
     this.name = entity.getProduct().getName();
-    this.price = entity.getPrice();
+    this.price = entity.getPrice().toBigDecimal();
     this.quantity = entity.getQuantity();
     this.imgURL = entity.getProduct().getImgUrl();
   }
@@ -35,7 +37,7 @@ public class OrderItemDTO {
     return name;
   }
 
-  public Double getPrice() {
+  public BigDecimal getPrice() {
     return price;
   }
 
@@ -43,8 +45,8 @@ public class OrderItemDTO {
     return quantity;
   }
 
-  public Double getSubTotal() {
-    return this.price * this.quantity;
+  public BigDecimal getSubTotal() {
+    return this.price.multiply(BigDecimal.valueOf(this.quantity));
   }
 
   public String getImgURL() {return imgURL;}
@@ -0,0 +1,37 @@
+package com.example.dscommerce.dto;
+
+import com.example.dscommerce.entities.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Mudança de status do pedido (admin). version é opcional na requisição: quando enviada,
+ * a mudança só é aplicada se o pedido ainda estiver nessa versão
+ */
+public class OrderStatusDTO {
+  private Long id;
+
+  @NotNull(message = "Required field")
+  private OrderStatus status;
+
+  private Long version;
+
+  public OrderStatusDTO() {}
+
+  public OrderStatusDTO(Long id, OrderStatus status, Long version) {
+    this.id = id;
+    this.status = status;
+    this.version = version;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public OrderStatus getStatus() {
+    return status;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.dscommerce.dto;
+
+import com.example.dscommerce.entities.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Linha da listagem de pedidos: sem itens, só as quantidades e o total
+ */
+public class OrderSummaryDTO {
+  private Long id;
+  private Instant moment;
+  private OrderStatus status;
+  private ClientDTO client;
+  private Integer itemCount;
+  private BigDecimal total;
+
+  public OrderSummaryDTO(Long id, Instant moment, OrderStatus status, ClientDTO client, Integer itemCount, BigDecimal total) {
+    this.id = id;
+    this.moment = moment;
+    this.status = status;
+    this.client = client;
+    this.itemCount = itemCount;
+    this.total = total;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Instant getMoment() {
+    return moment;
+  }
+
+  public OrderStatus getStatus() {
+    return status;
+  }
+
+  public ClientDTO getClient() {
+    return client;
+  }
+
+  public Integer getItemCount() {
+    return itemCount;
+  }
+
+  public BigDecimal getTotal() {
+    return total;
+  }
+}
@@ -2,12 +2,15 @@ package com.example.dscommerce.dto;
 
 import com.example.dscommerce.entities.Category;
 import com.example.dscommerce.entities.Product;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,19 +28,30 @@ public class ProductDTO {
 
   @NotNull(message = "Field price is required")
   @Positive(message = "Field price must be positive")
-  private Double price;
+  // 15 dígitos inteiros deixam folga em Money (centavos em long) para preço x quantidade e o total do pedido
+  @Digits(integer = 15, fraction = 2, message = "Field price must have at most 15 integer digits and two decimal places")
+  private BigDecimal price;
   private String imgUrl;
 
+  // null = sem controle de estoque. No detalhe em cache pode estar defasado até cache.product-detail.ttl
+  @PositiveOrZero(message = "Field stock must be zero or positive")
+  private Integer stock;
+
   @NotEmpty(message = "Must have at least one category")
   private List<CategoryDTO> categories = new ArrayList<>();
 
-  public ProductDTO(Long id, String name, String description, Double price, String imgUrl) {
+  public ProductDTO(Long id, String name, String description, BigDecimal price, String imgUrl) {
     this.id = id;
     this.name = name;
     this.description = description;
     this.price = price;
     this.imgUrl = imgUrl;
   }
+
+  public ProductDTO(Long id, String name, String description, BigDecimal price, String imgUrl, Integer stock) {
+    this(id, name, description, price, imgUrl);
+    this.stock = stock;
+  }
   public ProductDTO() {}
 
   //Sobrecarga do construtor
@@ -45,8 +59,9 @@ public class ProductDTO {
     id = entity.getId();
     name = entity.getName();
     description = entity.getDescription();
-    price = entity.getPrice();
+    price = entity.getPrice().toBigDecimal();
     imgUrl = entity.getImgUrl();
+    stock = entity.getStock();
 
     for (Category category : entity.getCategories()) {
       categories.add(new CategoryDTO(category));
@@ -65,7 +80,7 @@ public class ProductDTO {
     return description;
   }
 
-  public Double getPrice() {
+  public BigDecimal getPrice() {
     return price;
   }
 
@@ -73,6 +88,10 @@ public class ProductDTO {
     return imgUrl;
   }
 
+  public Integer getStock() {
+    return stock;
+  }
+
   public List<CategoryDTO> getCategories() {
     return categories;
   }
@@ -5,15 +5,17 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
+import java.math.BigDecimal;
+
 public class ProductMinDTO {
 
   private Long id;
 
   private String name;
-  private Double price;
+  private BigDecimal price;
   private String imgUrl;
 
-  public ProductMinDTO(Long id, String name, Double price, String imgUrl) {
+  public ProductMinDTO(Long id, String name, BigDecimal price, String imgUrl) {
     this.id = id;
     this.name = name;
     this.price = price;
@@ -25,7 +27,7 @@ public class ProductMinDTO {
   public ProductMinDTO(Product entity) {
     id = entity.getId();
     name = entity.getName();
-    price = entity.getPrice();
+    price = entity.getPrice().toBigDecimal();
     imgUrl = entity.getImgUrl();
   }
 
@@ -37,7 +39,7 @@ public class ProductMinDTO {
     return name;
   }
 
-  public Double getPrice() {
+  public BigDecimal getPrice() {
     return price;
   }
 
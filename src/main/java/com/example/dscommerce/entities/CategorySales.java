@@ -0,0 +1,49 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Vendas acumuladas por categoria (o item conta em cada categoria do produto)
+// Mantido por SalesRollupJob (deltas e reconstrução completa)
+@Entity
+@Table(name = "tb_sales_by_category")
+public class CategorySales {
+
+  @Id
+  private Long categoryId;
+
+  private long units;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money revenue = Money.ZERO;
+
+  private long paidUnits;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money paidRevenue = Money.ZERO;
+
+  public CategorySales() {
+  }
+
+  public Long getCategoryId() {
+    return categoryId;
+  }
+
+  public long getUnits() {
+    return units;
+  }
+
+  public Money getRevenue() {
+    return revenue;
+  }
+
+  public long getPaidUnits() {
+    return paidUnits;
+  }
+
+  public Money getPaidRevenue() {
+    return paidRevenue;
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+// Vendas por dia (UTC) do momento do pedido
+// Mantido por SalesRollupJob (deltas e reconstrução completa)
+@Entity
+@Table(name = "tb_sales_by_day")
+public class DailySales {
+
+  @Id
+  private LocalDate salesDate;
+
+  private long orders;
+
+  private long units;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money revenue = Money.ZERO;
+
+  private long paidOrders;
+
+  private long paidUnits;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money paidRevenue = Money.ZERO;
+
+  public DailySales() {
+  }
+
+  public LocalDate getSalesDate() {
+    return salesDate;
+  }
+
+  public long getOrders() {
+    return orders;
+  }
+
+  public long getUnits() {
+    return units;
+  }
+
+  public Money getRevenue() {
+    return revenue;
+  }
+
+  public long getPaidOrders() {
+    return paidOrders;
+  }
+
+  public long getPaidUnits() {
+    return paidUnits;
+  }
+
+  public Money getPaidRevenue() {
+    return paidRevenue;
+  }
+}
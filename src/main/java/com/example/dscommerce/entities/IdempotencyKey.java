@@ -0,0 +1,78 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// Chave Idempotency-Key já usada por um cliente e o recurso criado por ela.
+// Gravada na mesma transação do recurso: a chave primária impede duas execuções da mesma chave
+@Entity
+@Table(name = "tb_idempotency_key")
+public class IdempotencyKey implements Persistable<String> {
+
+  // id do cliente + ":" + valor do header
+  @Id
+  @Column(length = 300)
+  private String id;
+
+  // SHA-256 do corpo da primeira requisição; a mesma chave com outro corpo é recusada
+  @Column(nullable = false, length = 64)
+  private String requestHash;
+
+  private Long resourceId;
+
+  @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+  private Instant createdAt;
+
+  // id atribuído pela aplicação: sem isso o save() faria merge (SELECT + UPDATE de uma chave existente)
+  @Transient
+  private boolean isNew = true;
+
+  public IdempotencyKey() {
+  }
+
+  public IdempotencyKey(String id, String requestHash, Instant createdAt) {
+    this.id = id;
+    this.requestHash = requestHash;
+    this.createdAt = createdAt;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  public String getRequestHash() {
+    return requestHash;
+  }
+
+  public Long getResourceId() {
+    return resourceId;
+  }
+
+  public void setResourceId(Long resourceId) {
+    this.resourceId = resourceId;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    this.isNew = false;
+  }
+}
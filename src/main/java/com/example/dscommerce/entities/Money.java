@@ -0,0 +1,77 @@
+package com.example.dscommerce.entities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário em centavos (long): soma e multiplicação exatas, sem ponto flutuante.
+ * Gravado como NUMERIC(19, 2) pelo MoneyConverter; os DTOs expõem BigDecimal.
+ *
+ * Para somar muitos itens (totais de pedido, relatórios), acumule centsTimes(quantity) em um
+ * long e crie um único Money no final, em vez de um objeto por item
+ */
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 2;
+
+  public static final Money ZERO = new Money(0);
+
+  private final long cents;
+
+  private Money(long cents) {
+    this.cents = cents;
+  }
+
+  public static Money ofCents(long cents) {
+    return cents == 0 ? ZERO : new Money(cents);
+  }
+
+  /**
+   * Valor com no máximo duas casas decimais; mais casas lançam ArithmeticException
+   * (a validação dos DTOs recusa antes com @Digits)
+   */
+  public static Money of(BigDecimal amount) {
+    return ofCents(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+  }
+
+  public long getCents() {
+    return cents;
+  }
+
+  public Money plus(Money other) {
+    return ofCents(Math.addExact(cents, other.cents));
+  }
+
+  public Money times(int quantity) {
+    return ofCents(centsTimes(quantity));
+  }
+
+  // Centavos de valor x quantidade, para somas em long
+  public long centsTimes(int quantity) {
+    return Math.multiplyExact(cents, quantity);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(cents, other.cents);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof Money other && cents == other.cents;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(cents);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Money <-> NUMERIC(19, 2), aplicado a todos os atributos do tipo Money
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(BigDecimal value) {
+    return value == null ? null : Money.of(value);
+  }
+}
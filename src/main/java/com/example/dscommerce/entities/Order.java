@@ -6,11 +6,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -18,11 +21,19 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_order")
+@Table(name = "tb_order", indexes = {
+  @Index(name = "idx_order_client_moment_id", columnList = "client_id, moment DESC, id DESC"),
+  @Index(name = "idx_order_status_moment_id", columnList = "status, moment DESC, id DESC"),
+  @Index(name = "idx_order_moment_id", columnList = "moment DESC, id DESC"),
+  @Index(name = "idx_order_total_id", columnList = "total DESC, id DESC")
+})
 public class Order {
 
+  // Sequência com alocação em blocos (pooled-lo): o Hibernate reserva 50 ids por round trip
+  // e, diferente de IDENTITY, mantém o batching JDBC dos INSERTs habilitado
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+  @SequenceGenerator(name = "order_seq", sequenceName = "tb_order_seq", allocationSize = 50)
   private Long id;
 
   @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
@@ -30,6 +41,28 @@ public class Order {
 
   private OrderStatus status;
 
+  // false enquanto a baixa de estoque do pedido ainda não foi aplicada em tb_product
+  // (stock.reservation.mode=memory; o StockWriterJob aplica e marca true)
+  @Column(nullable = false)
+  private boolean stockApplied = true;
+
+  // Total (quantidade x preço) e quantidade de unidades, mantidos por addItem/refreshTotals:
+  // listagens e relatórios filtram e ordenam por eles sem ler tb_order_item
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money total = Money.ZERO;
+
+  @Column(nullable = false)
+  private Integer itemCount = 0;
+
+  // Motivo de um cancelamento feito pelo sistema (pedido assíncrono sem saldo ou que não pôde ser gravado)
+  private String cancelReason;
+
+  // Controle de concorrência otimista: toda mudança de status incrementa a versão
+  // (UPDATE condicional em OrderRepository.updateStatus)
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
   // RELAÇÃO: Order -> User (Many-to-One)
   // Muitos pedidos pertencem a UM cliente
   // FK: client_id na tabela tb_order
@@ -49,7 +82,8 @@ public class Order {
   // mappedBy="id.order" indica que OrderItem é o lado proprietário
   // Navega através da chave composta: id (OrderItemPK) -> order
   // Set evita duplicatas de itens no pedido
-  @OneToMany(mappedBy = "id.order")
+  // cascade=ALL persiste os itens junto com o pedido (INSERTs agrupados em batch)
+  @OneToMany(mappedBy = "id.order", cascade = CascadeType.ALL)
   private Set<OrderItem> items = new HashSet<>();
 
   public Order() {
@@ -87,6 +121,30 @@ public class Order {
     this.status = status;
   }
 
+  public Money getTotal() {
+    return total;
+  }
+
+  public Integer getItemCount() {
+    return itemCount;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public String getCancelReason() {
+    return cancelReason;
+  }
+
+  public boolean isStockApplied() {
+    return stockApplied;
+  }
+
+  public void setStockApplied(boolean stockApplied) {
+    this.stockApplied = stockApplied;
+  }
+
   public User getClient() {
     return client;
   }
@@ -107,6 +165,28 @@ public class Order {
     return items;
   }
 
+  /**
+   * Adiciona o item e atualiza total e itemCount. Itens adicionados direto em getItems()
+   * ou com quantidade/preço alterados exigem refreshTotals()
+   */
+  public void addItem(OrderItem item) {
+    if (items.add(item)) {
+      total = Money.ofCents(Math.addExact(total.getCents(), item.getPrice().centsTimes(item.getQuantity())));
+      itemCount += item.getQuantity();
+    }
+  }
+
+  public void refreshTotals() {
+    long cents = 0;
+    int count = 0;
+    for (OrderItem item : items) {
+      cents = Math.addExact(cents, item.getPrice().centsTimes(item.getQuantity()));
+      count += item.getQuantity();
+    }
+    total = Money.ofCents(cents);
+    itemCount = count;
+  }
+
   /**
    * Método auxiliar para obter apenas os Products de um pedido
    *
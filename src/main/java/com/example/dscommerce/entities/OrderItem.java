@@ -1,5 +1,6 @@
 package com.example.dscommerce.entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -31,11 +32,13 @@ public class OrderItem {
 
   // Atributos extras do relacionamento (motivo para usar classe associativa)
   private Integer quantity;
-  private Double price;
+
+  @Column(precision = 19, scale = 2)
+  private Money price;
 
   public OrderItem() {}
 
-  public OrderItem(Order order, Product product, Integer quantity, Double price) {
+  public OrderItem(Order order, Product product, Integer quantity, Money price) {
     id.setOrder(order);
     id.setProduct(product);
 
@@ -67,11 +70,11 @@ public class OrderItem {
     this.quantity = quantity;
   }
 
-  public Double getPrice() {
+  public Money getPrice() {
     return price;
   }
 
-  public void setPrice(Double price) {
+  public void setPrice(Money price) {
     this.price = price;
   }
 }
@@ -1,9 +1,35 @@
 package com.example.dscommerce.entities;
 
+// Gravado como ORDINAL: novos valores só podem ser acrescentados no final
 public enum OrderStatus {
   WAITING_PAYMENT,
   PAID,
   SHIPPED,
   DELIVERED,
-  CANCELED
+  CANCELED,
+  // aceito em orders.placement.mode=async e ainda não gravado em tb_order
+  PENDING;
+
+  /**
+   * Máquina de estados do pedido:
+   * WAITING_PAYMENT -> PAID -> SHIPPED -> DELIVERED; WAITING_PAYMENT e PAID -> CANCELED
+   */
+  public boolean canChangeTo(OrderStatus next) {
+    return switch (this) {
+      case WAITING_PAYMENT -> next == PAID || next == CANCELED;
+      case PAID -> next == SHIPPED || next == CANCELED;
+      case SHIPPED -> next == DELIVERED;
+      case DELIVERED, CANCELED, PENDING -> false;
+    };
+  }
+
+  // Conta como venda: pedido gravado e não cancelado
+  public boolean isPlaced() {
+    return this == WAITING_PAYMENT || isPaid();
+  }
+
+  // Pagamento confirmado
+  public boolean isPaid() {
+    return this == PAID || this == SHIPPED || this == DELIVERED;
+  }
 }
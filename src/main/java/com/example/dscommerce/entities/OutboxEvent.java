@@ -0,0 +1,66 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// Evento gravado na mesma transação da mudança do pedido e removido depois de publicado (OutboxRelay)
+@Entity
+@Table(name = "tb_outbox_event")
+public class OutboxEvent {
+
+  // allocationSize = 1: o id é obtido no persist, depois do lock do pedido, então a ordem dos ids
+  // é a ordem das mudanças de cada pedido mesmo entre réplicas (blocos pooled-lo quebrariam isso)
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+  @SequenceGenerator(name = "outbox_event_seq", sequenceName = "tb_outbox_event_seq", allocationSize = 1)
+  private Long id;
+
+  // id do pedido
+  private Long aggregateId;
+
+  private String type;
+
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+
+  @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+  private Instant createdAt;
+
+  public OutboxEvent() {
+  }
+
+  public OutboxEvent(Long id, Long aggregateId, String type, String payload, Instant createdAt) {
+    this.id = id;
+    this.aggregateId = aggregateId;
+    this.type = type;
+    this.payload = payload;
+    this.createdAt = createdAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getAggregateId() {
+    return aggregateId;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+}
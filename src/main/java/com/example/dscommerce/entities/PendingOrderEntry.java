@@ -0,0 +1,98 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// Pedido aceito de forma assíncrona e ainda não gravado em tb_order (orders.placement.store=database).
+// Removido na mesma transação que insere o pedido; o que sobrar após uma queda é reenfileirado
+// pela instância que assumir a linha (owner)
+@Entity
+@Table(name = "tb_pending_order")
+public class PendingOrderEntry implements Persistable<Long> {
+
+  // id definitivo do pedido em tb_order
+  @Id
+  private Long id;
+
+  private Long clientId;
+
+  private String clientName;
+
+  @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+  private Instant moment;
+
+  // itens como "productId:quantity:price", separados por ";"
+  @Column(columnDefinition = "TEXT")
+  private String items;
+
+  // instância que enfileirou o pedido e quando; trocados por quem o recupera
+  @Column(length = 36)
+  private String owner;
+
+  @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+  private Instant claimedAt;
+
+  @Transient
+  private boolean isNew = true;
+
+  public PendingOrderEntry() {
+  }
+
+  public PendingOrderEntry(Long id, Long clientId, String clientName, Instant moment, String items,
+                           String owner, Instant claimedAt) {
+    this.id = id;
+    this.clientId = clientId;
+    this.clientName = clientName;
+    this.moment = moment;
+    this.items = items;
+    this.owner = owner;
+    this.claimedAt = claimedAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getClientId() {
+    return clientId;
+  }
+
+  public String getClientName() {
+    return clientName;
+  }
+
+  public Instant getMoment() {
+    return moment;
+  }
+
+  public String getItems() {
+    return items;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public Instant getClaimedAt() {
+    return claimedAt;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    this.isNew = false;
+  }
+}
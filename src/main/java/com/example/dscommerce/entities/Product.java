@@ -5,18 +5,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_Product")
+@DynamicUpdate
+@Table(name = "tb_Product", indexes = @Index(name = "idx_product_name_id", columnList = "name, id"))
 public class Product {
 
   @Id
@@ -28,13 +31,19 @@ public class Product {
   @Column(columnDefinition = "TEXT")
   private String description;
 
-  private Double price;
+  @Column(precision = 19, scale = 2)
+  private Money price;
 
   private String imgUrl;
 
+  // Saldo em estoque; null = produto sem controle de estoque (venda ilimitada).
+  // Baixado apenas por UPDATE condicional (ProductStockRepository); @DynamicUpdate evita que
+  // a edição de outros campos do produto sobrescreva o saldo com o valor lido antes
+  private Integer stock;
+
   public Product() {}
 
-  public Product(Long id, String name, String description, Double price, String imgUrl) {
+  public Product(Long id, String name, String description, Money price, String imgUrl) {
     this.id = id;
     this.name = name;
     this.description = description;
@@ -78,6 +87,14 @@ public class Product {
     this.name = name;
   }
 
+  public Integer getStock() {
+    return stock;
+  }
+
+  public void setStock(Integer stock) {
+    this.stock = stock;
+  }
+
   public String getDescription() {
     return description;
   }
@@ -86,11 +103,11 @@ public class Product {
     this.description = description;
   }
 
-  public Double getPrice() {
+  public Money getPrice() {
     return price;
   }
 
-  public void setPrice(Double price) {
+  public void setPrice(Money price) {
     this.price = price;
   }
 
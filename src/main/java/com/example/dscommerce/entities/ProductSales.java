@@ -0,0 +1,49 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Vendas acumuladas por produto: placed = pedidos não cancelados, paid = pagamento confirmado
+// Mantido por SalesRollupJob (deltas e reconstrução completa)
+@Entity
+@Table(name = "tb_sales_by_product")
+public class ProductSales {
+
+  @Id
+  private Long productId;
+
+  private long units;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money revenue = Money.ZERO;
+
+  private long paidUnits;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private Money paidRevenue = Money.ZERO;
+
+  public ProductSales() {
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public long getUnits() {
+    return units;
+  }
+
+  public Money getRevenue() {
+    return revenue;
+  }
+
+  public long getPaidUnits() {
+    return paidUnits;
+  }
+
+  public Money getPaidRevenue() {
+    return paidRevenue;
+  }
+}
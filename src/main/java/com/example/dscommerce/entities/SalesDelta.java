@@ -0,0 +1,54 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// Variação de vendas de um pedido (+1/-1 em placed e paid), gravada na transação do pedido
+// e consolidada em tb_sales_by_* pelo SalesRollupJob.
+// Ids por sequência (e não IDENTITY) para o Hibernate agrupar os INSERTs em batch
+@Entity
+@Table(name = "tb_sales_delta")
+public class SalesDelta {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_delta_seq")
+  @SequenceGenerator(name = "sales_delta_seq", sequenceName = "tb_sales_delta_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long orderId;
+
+  private int placed;
+
+  private int paid;
+
+  public SalesDelta() {
+  }
+
+  public SalesDelta(Long orderId, int placed, int paid) {
+    this.orderId = orderId;
+    this.placed = placed;
+    this.paid = paid;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public int getPlaced() {
+    return placed;
+  }
+
+  public int getPaid() {
+    return paid;
+  }
+}
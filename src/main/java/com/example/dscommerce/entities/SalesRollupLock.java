@@ -0,0 +1,24 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Linha única (id 1) travada com FOR UPDATE pelo SalesRollupJob: fold, rebuild e backfill
+// não se sobrepõem, nem na mesma instância nem entre réplicas
+@Entity
+@Table(name = "tb_sales_rollup_lock")
+public class SalesRollupLock {
+
+  public static final int ID = 1;
+
+  @Id
+  private Integer id;
+
+  public SalesRollupLock() {
+  }
+
+  public Integer getId() {
+    return id;
+  }
+}
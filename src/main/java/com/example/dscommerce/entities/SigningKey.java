@@ -0,0 +1,54 @@
+package com.example.dscommerce.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// Par de chaves RSA usado para assinar os JWTs, compartilhado entre as réplicas.
+// A chave privada fica cifrada (AES-GCM); a mais recente assina, as anteriores só validam
+@Entity
+@Table(name = "tb_signing_key")
+public class SigningKey {
+
+  // kid publicado no JWKS e no header dos tokens
+  @Id
+  private String id;
+
+  @Column(columnDefinition = "TEXT")
+  private String publicKey;
+
+  @Column(columnDefinition = "TEXT")
+  private String privateKey;
+
+  @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+  private Instant createdAt;
+
+  public SigningKey() {
+  }
+
+  public SigningKey(String id, String publicKey, String privateKey, Instant createdAt) {
+    this.id = id;
+    this.publicKey = publicKey;
+    this.privateKey = privateKey;
+    this.createdAt = createdAt;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getPublicKey() {
+    return publicKey;
+  }
+
+  public String getPrivateKey() {
+    return privateKey;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+}
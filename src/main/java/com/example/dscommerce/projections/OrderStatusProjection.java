@@ -0,0 +1,9 @@
+package com.example.dscommerce.projections;
+
+import com.example.dscommerce.entities.OrderStatus;
+
+public interface OrderStatusProjection {
+  Long getClientId();
+  OrderStatus getStatus();
+  Long getVersion();
+}
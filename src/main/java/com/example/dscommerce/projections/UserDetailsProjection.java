@@ -1,7 +1,9 @@
 package com.example.dscommerce.projections;
 
 public interface UserDetailsProjection {
+  Long getUserId();
   String getUsername();
+  String getName();
   String getPassword();
   Long getRoleId();
   String getAuthority();
@@ -0,0 +1,15 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.entities.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+  @Modifying
+  @Query("DELETE FROM IdempotencyKey obj WHERE obj.id = :id AND obj.createdAt < :oldest")
+  int deleteExpired(String id, Instant oldest);
+}
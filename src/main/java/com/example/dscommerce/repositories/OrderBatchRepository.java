@@ -0,0 +1,56 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.services.placement.PendingOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Gravação em lote dos pedidos aceitos de forma assíncrona: os ids já foram reservados
+ * (OrderIdAllocator), então os INSERTs vão direto por JDBC, dois batches para o lote inteiro
+ */
+@Repository
+public class OrderBatchRepository {
+
+  private static final String INSERT_ORDER =
+    "INSERT INTO tb_order (id, moment, status, cancel_reason, stock_applied, total, item_count, version, client_id)"
+      + " VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?)";
+
+  private static final String INSERT_ITEM =
+    "INSERT INTO tb_order_item (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+
+  // moment é gravado em UTC, como o Hibernate faz com Instant em Order.moment
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void insertAll(List<PendingOrder> orders) {
+    jdbcTemplate.batchUpdate(INSERT_ORDER, orders, orders.size(), (ps, order) -> {
+      ps.setLong(1, order.getId());
+      ps.setTimestamp(2, Timestamp.from(order.getMoment()), Calendar.getInstance(UTC));
+      ps.setInt(3, order.getStatus().ordinal());
+      ps.setString(4, order.getCancelReason());
+      ps.setBoolean(5, order.isStockApplied());
+      ps.setBigDecimal(6, order.getTotal().toBigDecimal());
+      ps.setInt(7, order.getItemCount());
+      ps.setLong(8, order.getClientId());
+    });
+
+    List<Object[]> items = new ArrayList<>();
+    for (PendingOrder order : orders) {
+      for (PendingOrder.Item item : order.getItems()) {
+        items.add(new Object[] {order.getId(), item.getProductId(), item.getQuantity(), item.getPrice().toBigDecimal()});
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_ITEM, items);
+  }
+}
@@ -1,6 +1,39 @@
 package com.example.dscommerce.repositories;
 
 import com.example.dscommerce.entities.Order;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.projections.OrderStatusProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+  // Carrega o agregado completo (cliente, pagamento, itens e produtos) em uma única consulta
+  @Query("""
+    SELECT obj FROM Order obj
+    JOIN FETCH obj.client
+    LEFT JOIN FETCH obj.payment
+    LEFT JOIN FETCH obj.items item
+    LEFT JOIN FETCH item.id.product
+    WHERE obj.id = :id
+    """)
+  Optional<Order> searchByIdWithItems(Long id);
+
+  // Só as colunas necessárias para validar uma mudança de status (sem carregar o agregado)
+  @Query("SELECT obj.client.id AS clientId, obj.status AS status, obj.version AS version FROM Order obj WHERE obj.id = :id")
+  Optional<OrderStatusProjection> searchStatusById(Long id);
+
+  /**
+   * Mudança de status em um único UPDATE condicional: só altera a linha se o status e a versão
+   * ainda forem os lidos. Retorna 0 quando outra transação mudou o pedido antes
+   */
+  @Modifying
+  @Query("""
+    UPDATE Order obj SET obj.status = :to, obj.version = obj.version + 1
+    WHERE obj.id = :id AND obj.status = :from AND obj.version = :version
+    """)
+  int updateStatus(Long id, OrderStatus from, OrderStatus to, Long version);
+}
@@ -0,0 +1,115 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.dto.ClientDTO;
+import com.example.dscommerce.dto.OrderSummaryDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listagem de pedidos por keyset em (moment, id) ou (total, id) decrescente, direto em DTO (sem entidades).
+ * Só os filtros informados entram no WHERE, então cada combinação usa o índice composto
+ * correspondente em tb_order (por cliente, por status, geral ou por total) e lê apenas a página pedida,
+ * não importa quantos pedidos o cliente tenha
+ */
+@Repository
+public class OrderSummaryRepository {
+
+  private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public OrderSummaryRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Até limit pedidos depois de (lastMoment, lastId), do mais recente ao mais antigo.
+   * Parâmetros nulos não filtram; from é inclusivo e to exclusivo.
+   * Total e quantidade vêm das colunas de tb_order, sem ler os itens; aqui minTotal só filtra as linhas
+   * da varredura em (moment, id). Para "pedidos acima de X" use findPageByTotal
+   */
+  public List<OrderSummaryDTO> findPage(Long clientId, OrderStatus status, Instant from, Instant to, BigDecimal minTotal,
+                                        Instant lastMoment, Long lastId, int limit) {
+    List<Object> params = new ArrayList<>();
+    StringBuilder sql = filtered(clientId, status, from, to, minTotal, params);
+    if (lastMoment != null) {
+      sql.append(" AND (o.moment, o.id) < (?, ?)");
+      params.add(timestamp(lastMoment));
+      params.add(lastId);
+    }
+    sql.append(" ORDER BY o.moment DESC, o.id DESC LIMIT ?");
+    params.add(limit);
+
+    return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toSummary(rs), params.toArray());
+  }
+
+  /**
+   * Até limit pedidos depois de (lastTotal, lastId), do maior total ao menor.
+   * Varre idx_order_total_id: minTotal vira o fim da faixa lida no índice, e não um filtro
+   */
+  public List<OrderSummaryDTO> findPageByTotal(Long clientId, OrderStatus status, Instant from, Instant to,
+                                               BigDecimal minTotal, BigDecimal lastTotal, Long lastId, int limit) {
+    List<Object> params = new ArrayList<>();
+    StringBuilder sql = filtered(clientId, status, from, to, minTotal, params);
+    if (lastTotal != null) {
+      sql.append(" AND (o.total, o.id) < (?, ?)");
+      params.add(lastTotal);
+      params.add(lastId);
+    }
+    sql.append(" ORDER BY o.total DESC, o.id DESC LIMIT ?");
+    params.add(limit);
+
+    return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toSummary(rs), params.toArray());
+  }
+
+  private static StringBuilder filtered(Long clientId, OrderStatus status, Instant from, Instant to, BigDecimal minTotal,
+                                        List<Object> params) {
+    StringBuilder sql = new StringBuilder("""
+      SELECT o.id, o.moment, o.status, o.client_id, u.name, o.item_count, o.total
+      FROM tb_order o
+      JOIN tb_user u ON u.id = o.client_id
+      WHERE 1 = 1
+      """);
+    if (clientId != null) {
+      sql.append(" AND o.client_id = ?");
+      params.add(clientId);
+    }
+    if (status != null) {
+      sql.append(" AND o.status = ?");
+      params.add(status.ordinal());
+    }
+    if (from != null) {
+      sql.append(" AND o.moment >= ?");
+      params.add(timestamp(from));
+    }
+    if (to != null) {
+      sql.append(" AND o.moment < ?");
+      params.add(timestamp(to));
+    }
+    if (minTotal != null) {
+      sql.append(" AND o.total >= ?");
+      params.add(minTotal);
+    }
+    return sql;
+  }
+
+  private static OrderSummaryDTO toSummary(ResultSet rs) throws SQLException {
+    return new OrderSummaryDTO(rs.getLong(1), rs.getObject(2, LocalDateTime.class).toInstant(ZoneOffset.UTC),
+      STATUSES[rs.getInt(3)], new ClientDTO(rs.getLong(4), rs.getString(5)), rs.getInt(6), rs.getBigDecimal(7));
+  }
+
+  // moment é gravado em UTC, como o Hibernate faz com Instant em Order.moment
+  private static LocalDateTime timestamp(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+  }
+}
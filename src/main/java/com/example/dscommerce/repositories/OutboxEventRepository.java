@@ -0,0 +1,7 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
@@ -0,0 +1,28 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.entities.PendingOrderEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingOrderEntryRepository extends JpaRepository<PendingOrderEntry, Long> {
+
+  List<PendingOrderEntry> findByOwnerNotAndClaimedAtBeforeOrderByIdAsc(String owner, Instant claimedBefore, Limit limit);
+
+  // Troca de dono condicional: das instâncias que leram a mesma linha, só uma a assume
+  @Modifying
+  @Query("""
+    UPDATE PendingOrderEntry obj SET obj.owner = :owner, obj.claimedAt = :claimedAt
+    WHERE obj.id = :id AND obj.owner = :previousOwner
+    """)
+  int claim(Long id, String previousOwner, String owner, Instant claimedAt);
+
+  @Modifying
+  @Query("DELETE FROM PendingOrderEntry obj WHERE obj.id IN :ids")
+  int deleteByIds(Collection<Long> ids);
+}
@@ -0,0 +1,132 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.dto.CategoryDTO;
+import com.example.dscommerce.dto.ProductDTO;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gravação em lote do cadastro de produtos (importação): INSERTs e UPDATEs em batches JDBC, sem
+ * passar pelo contexto de persistência. Product.id é IDENTITY, o que impede o Hibernate de agrupar
+ * os INSERTs; aqui os ids gerados voltam do próprio batch
+ */
+@Repository
+public class ProductBatchRepository {
+
+  private static final String INSERT_PRODUCT =
+    "INSERT INTO tb_product (name, description, price, img_url, stock) VALUES (?, ?, ?, ?, ?)";
+
+  // Sem stock na linha o saldo atual é mantido, como em ProductService.update
+  private static final String UPDATE_PRODUCT =
+    "UPDATE tb_product SET name = ?, description = ?, price = ?, img_url = ?, stock = COALESCE(?, stock) WHERE id = ?";
+
+  private static final String INSERT_CATEGORY =
+    "INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProductBatchRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public Set<Long> findExistingIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(jdbcTemplate.queryForList(
+      "SELECT id FROM tb_product WHERE id IN (" + placeholders(ids.size()) + ")", Long.class, ids.toArray()));
+  }
+
+  /**
+   * Insere os produtos em um único batch e retorna os ids gerados, na mesma ordem
+   */
+  public List<Long> insertAll(List<ProductDTO> products) {
+    if (products.isEmpty()) {
+      return List.of();
+    }
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[] {"id"}),
+      setter(products, false), keyHolder);
+
+    List<Long> ids = new ArrayList<>(products.size());
+    for (Map<String, Object> keys : keyHolder.getKeyList()) {
+      ids.add(((Number) keys.values().iterator().next()).longValue());
+    }
+    return ids;
+  }
+
+  public void updateAll(List<ProductDTO> products) {
+    if (!products.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_PRODUCT, setter(products, true));
+    }
+  }
+
+  /**
+   * Substitui as categorias dos produtos: um DELETE para os ids informados e um batch de INSERTs
+   */
+  public void replaceCategories(List<Long> ids, List<ProductDTO> products) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.update("DELETE FROM tb_product_category WHERE product_id IN (" + placeholders(ids.size()) + ")",
+      ids.toArray());
+
+    List<Object[]> links = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i++) {
+      // a mesma categoria repetida na linha violaria a chave de tb_product_category
+      Set<Long> categoryIds = new LinkedHashSet<>();
+      for (CategoryDTO category : products.get(i).getCategories()) {
+        categoryIds.add(category.getId());
+      }
+      for (Long categoryId : categoryIds) {
+        links.add(new Object[] {ids.get(i), categoryId});
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_CATEGORY, links);
+  }
+
+  private static BatchPreparedStatementSetter setter(List<ProductDTO> products, boolean withId) {
+    return new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        ProductDTO product = products.get(i);
+        ps.setString(1, product.getName());
+        ps.setString(2, product.getDescription());
+        ps.setBigDecimal(3, product.getPrice());
+        ps.setString(4, product.getImgUrl());
+        if (product.getStock() == null) {
+          ps.setNull(5, Types.INTEGER);
+        } else {
+          ps.setInt(5, product.getStock());
+        }
+        if (withId) {
+          ps.setLong(6, product.getId());
+        }
+      }
+
+      @Override
+      public int getBatchSize() {
+        return products.size();
+      }
+    };
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
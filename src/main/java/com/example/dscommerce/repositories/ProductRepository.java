@@ -1,13 +1,40 @@
 package com.example.dscommerce.repositories;
 
 import com.example.dscommerce.entities.Product;
-import org.springframework.data.domain.Page;
+import com.example.dscommerce.projections.ProductNameProjection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+  // Produto e categorias em uma única consulta (detalhe do produto)
+  @Query("SELECT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id = :id")
+  Optional<Product> searchByIdWithCategories(Long id);
+
+  // Lê uma linha a mais para saber se há próxima página em vez de contar; o total, quando pedido, vem de countByName
   @Query("SELECT obj FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%'))")
-  Page<Product> searchByName(String name, Pageable pageable);
+  Slice<Product> searchSliceByName(String name, Pageable pageable);
+
+  @Query("SELECT COUNT(obj) FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%'))")
+  long countByName(String name);
+
+  // Keyset: continua a partir do último (name, id) entregue, servido pelo índice (name, id).
+  // name >= :lastName é redundante com o OR, mas é o que o Postgres usa como início da faixa no índice
+  @Query("""
+    SELECT obj FROM Product obj
+    WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%'))
+    AND obj.name >= :lastName
+    AND (obj.name > :lastName OR (obj.name = :lastName AND obj.id > :lastId))
+    ORDER BY obj.name, obj.id
+    """)
+  List<Product> searchByNameAfter(String name, String lastName, Long lastId, Limit limit);
+
+  @Query("SELECT obj.id AS id, obj.name AS name FROM Product obj")
+  List<ProductNameProjection> searchAllNames();
 }
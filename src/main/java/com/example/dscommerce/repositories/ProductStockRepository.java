@@ -0,0 +1,129 @@
+package com.example.dscommerce.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Baixa de estoque com UPDATE condicional (sem leitura prévia nem @Version/retry):
+ * a linha só é alterada se houver saldo, e o banco serializa as baixas concorrentes do mesmo produto.
+ * Também atende o modo stock.reservation.mode=memory: saldo disponível e aplicação em lotes
+ * das baixas pendentes (tb_order.stock_applied = false).
+ */
+@Repository
+public class ProductStockRepository {
+
+  private static final String DECREASE_STOCK =
+    "UPDATE tb_product SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+  private static final String INCREASE_STOCK =
+    "UPDATE tb_product SET stock = stock + ? WHERE id = ?";
+
+  // Saldo disponível = stock - quantidades dos pedidos ainda não aplicados (uma única leitura)
+  private static final String AVAILABLE_STOCK = """
+    SELECT p.id, p.stock - COALESCE((
+      SELECT SUM(i.quantity) FROM tb_order_item i
+      JOIN tb_order o ON o.id = i.order_id
+      WHERE o.stock_applied = FALSE AND i.product_id = p.id
+    ), 0) AS available
+    FROM tb_product p
+    WHERE p.stock IS NOT NULL
+    """;
+
+  private static final String UNAPPLIED_ORDER_IDS =
+    "SELECT id FROM tb_order WHERE stock_applied = FALSE ORDER BY id LIMIT ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Envia todas as baixas em um único batch JDBC, em ordem de id (evita deadlock entre pedidos
+   * com os mesmos produtos), e retorna os ids sem saldo suficiente. Na transação do pedido, ela
+   * precisa ser desfeita se a lista não estiver vazia; o StockWriterJob apenas registra a diferença.
+   */
+  public List<Long> decrease(SortedMap<Long, Integer> quantities) {
+    List<Map.Entry<Long, Integer>> entries = new ArrayList<>(quantities.entrySet());
+    int[][] results = jdbcTemplate.batchUpdate(DECREASE_STOCK, entries, entries.size(), (ps, entry) -> {
+      ps.setInt(1, entry.getValue());
+      ps.setLong(2, entry.getKey());
+      ps.setInt(3, entry.getValue());
+    });
+
+    List<Long> insufficient = new ArrayList<>();
+    for (int i = 0; i < entries.size(); i++) {
+      if (results[0][i] == 0) {
+        insufficient.add(entries.get(i).getKey());
+      }
+    }
+    return insufficient;
+  }
+
+  /**
+   * Devolve ao estoque quantidades baixadas (reserva desfeita ou pedido cancelado)
+   */
+  public void increase(SortedMap<Long, Integer> quantities) {
+    List<Map.Entry<Long, Integer>> entries = new ArrayList<>(quantities.entrySet());
+    jdbcTemplate.batchUpdate(INCREASE_STOCK, entries, entries.size(), (ps, entry) -> {
+      ps.setInt(1, entry.getValue());
+      ps.setLong(2, entry.getKey());
+    });
+  }
+
+  /**
+   * Saldo disponível de todos os produtos com estoque controlado
+   */
+  public Map<Long, Long> findAvailableStock() {
+    Map<Long, Long> stock = new HashMap<>();
+    jdbcTemplate.query(AVAILABLE_STOCK, rs -> {
+      stock.put(rs.getLong(1), rs.getLong(2));
+    });
+    return stock;
+  }
+
+  /**
+   * Saldo disponível do produto, ou vazio se ele não existir ou não tiver estoque controlado
+   */
+  public OptionalLong findAvailableStock(Long productId) {
+    List<Long> stock = jdbcTemplate.query(AVAILABLE_STOCK + " AND p.id = ?", (rs, rowNum) -> rs.getLong(2), productId);
+    return stock.isEmpty() ? OptionalLong.empty() : OptionalLong.of(stock.get(0));
+  }
+
+  public List<Long> findUnappliedOrderIds(int limit) {
+    return jdbcTemplate.queryForList(UNAPPLIED_ORDER_IDS, Long.class, limit);
+  }
+
+  /**
+   * Soma, por produto com estoque controlado, as quantidades dos pedidos informados
+   */
+  public SortedMap<Long, Integer> sumQuantities(List<Long> orderIds) {
+    String sql = "SELECT i.product_id, SUM(i.quantity) FROM tb_order_item i"
+      + " JOIN tb_product p ON p.id = i.product_id"
+      + " WHERE p.stock IS NOT NULL AND i.order_id IN (" + placeholders(orderIds.size()) + ")"
+      + " GROUP BY i.product_id";
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    jdbcTemplate.query(sql, rs -> {
+      quantities.put(rs.getLong(1), rs.getInt(2));
+    }, orderIds.toArray());
+    return quantities;
+  }
+
+  public void markApplied(List<Long> orderIds) {
+    jdbcTemplate.update("UPDATE tb_order SET stock_applied = TRUE WHERE id IN (" + placeholders(orderIds.size()) + ")",
+      orderIds.toArray());
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.entities.SalesDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SalesDeltaRepository extends JpaRepository<SalesDelta, Long> {
+}
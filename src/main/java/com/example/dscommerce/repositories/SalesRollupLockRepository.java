@@ -0,0 +1,17 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.entities.SalesRollupLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface SalesRollupLockRepository extends JpaRepository<SalesRollupLock, Integer> {
+
+  // SELECT ... FOR UPDATE: quem chega depois espera o commit da transação que travou a linha
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT obj FROM SalesRollupLock obj WHERE obj.id = :id")
+  Optional<SalesRollupLock> lock(Integer id);
+}
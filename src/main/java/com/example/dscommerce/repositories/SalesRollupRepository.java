@@ -0,0 +1,251 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.dto.CategorySalesDTO;
+import com.example.dscommerce.dto.DailySalesDTO;
+import com.example.dscommerce.dto.ProductSalesDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Rollups de vendas (tb_sales_by_product, tb_sales_by_category, tb_sales_by_day).
+ *
+ * Os pedidos só gravam deltas em tb_sales_delta (SalesDelta, INSERT sem disputar linha); os deltas são somados
+ * em lote por chave e aplicados com UPDATE incremental, ou INSERT quando a chave ainda não existe.
+ * Os painéis leem só as tabelas de rollup, uma linha por produto, categoria ou dia
+ */
+@Repository
+public class SalesRollupRepository {
+
+  private static final String PLACED = ordinals(OrderStatus::isPlaced);
+  private static final String PAID = ordinals(OrderStatus::isPaid);
+
+  private static final String SELECT_DELTA_IDS = "SELECT id FROM tb_sales_delta ORDER BY id LIMIT ? FOR UPDATE";
+
+  // %s: placeholders dos ids dos deltas. A chave é sempre a primeira coluna
+  private static final String PRODUCT_DELTAS = """
+    SELECT i.product_id, SUM(d.placed * i.quantity), SUM(d.placed * i.quantity * i.price),
+      SUM(d.paid * i.quantity), SUM(d.paid * i.quantity * i.price)
+    FROM tb_sales_delta d
+    JOIN tb_order_item i ON i.order_id = d.order_id
+    WHERE d.id IN (%s)
+    GROUP BY i.product_id
+    """;
+
+  private static final String CATEGORY_DELTAS = """
+    SELECT pc.category_id, SUM(d.placed * i.quantity), SUM(d.placed * i.quantity * i.price),
+      SUM(d.paid * i.quantity), SUM(d.paid * i.quantity * i.price)
+    FROM tb_sales_delta d
+    JOIN tb_order_item i ON i.order_id = d.order_id
+    JOIN tb_product_category pc ON pc.product_id = i.product_id
+    WHERE d.id IN (%s)
+    GROUP BY pc.category_id
+    """;
+
+  // O dia usa total e item_count gravados no pedido, sem ler os itens
+  private static final String DAY_DELTAS = """
+    SELECT CAST(o.moment AS DATE), SUM(d.placed), SUM(d.placed * o.item_count), SUM(d.placed * o.total),
+      SUM(d.paid), SUM(d.paid * o.item_count), SUM(d.paid * o.total)
+    FROM tb_sales_delta d
+    JOIN tb_order o ON o.id = d.order_id
+    WHERE d.id IN (%s)
+    GROUP BY CAST(o.moment AS DATE)
+    """;
+
+  // Mesma ordem de parâmetros no UPDATE e no INSERT: valores e, por último, a chave
+  private static final String UPDATE_PRODUCT = """
+    UPDATE tb_sales_by_product SET units = units + ?, revenue = revenue + ?,
+      paid_units = paid_units + ?, paid_revenue = paid_revenue + ?
+    WHERE product_id = ?
+    """;
+
+  private static final String INSERT_PRODUCT =
+    "INSERT INTO tb_sales_by_product (units, revenue, paid_units, paid_revenue, product_id) VALUES (?, ?, ?, ?, ?)";
+
+  private static final String UPDATE_CATEGORY = """
+    UPDATE tb_sales_by_category SET units = units + ?, revenue = revenue + ?,
+      paid_units = paid_units + ?, paid_revenue = paid_revenue + ?
+    WHERE category_id = ?
+    """;
+
+  private static final String INSERT_CATEGORY =
+    "INSERT INTO tb_sales_by_category (units, revenue, paid_units, paid_revenue, category_id) VALUES (?, ?, ?, ?, ?)";
+
+  private static final String UPDATE_DAY = """
+    UPDATE tb_sales_by_day SET orders = orders + ?, units = units + ?, revenue = revenue + ?,
+      paid_orders = paid_orders + ?, paid_units = paid_units + ?, paid_revenue = paid_revenue + ?
+    WHERE sales_date = ?
+    """;
+
+  private static final String INSERT_DAY = """
+    INSERT INTO tb_sales_by_day (orders, units, revenue, paid_orders, paid_units, paid_revenue, sales_date)
+    VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+
+  private static final String REBUILD_PRODUCT = """
+    INSERT INTO tb_sales_by_product (product_id, units, revenue, paid_units, paid_revenue)
+    SELECT i.product_id, SUM(i.quantity), SUM(i.quantity * i.price),
+      SUM(CASE WHEN o.status IN (%2$s) THEN i.quantity ELSE 0 END),
+      SUM(CASE WHEN o.status IN (%2$s) THEN i.quantity * i.price ELSE 0 END)
+    FROM tb_order o
+    JOIN tb_order_item i ON i.order_id = o.id
+    WHERE o.status IN (%1$s)
+    GROUP BY i.product_id
+    """.formatted(PLACED, PAID);
+
+  private static final String REBUILD_CATEGORY = """
+    INSERT INTO tb_sales_by_category (category_id, units, revenue, paid_units, paid_revenue)
+    SELECT pc.category_id, SUM(i.quantity), SUM(i.quantity * i.price),
+      SUM(CASE WHEN o.status IN (%2$s) THEN i.quantity ELSE 0 END),
+      SUM(CASE WHEN o.status IN (%2$s) THEN i.quantity * i.price ELSE 0 END)
+    FROM tb_order o
+    JOIN tb_order_item i ON i.order_id = o.id
+    JOIN tb_product_category pc ON pc.product_id = i.product_id
+    WHERE o.status IN (%1$s)
+    GROUP BY pc.category_id
+    """.formatted(PLACED, PAID);
+
+  private static final String REBUILD_DAY = """
+    INSERT INTO tb_sales_by_day (sales_date, orders, units, revenue, paid_orders, paid_units, paid_revenue)
+    SELECT CAST(o.moment AS DATE), COUNT(*), SUM(o.item_count), SUM(o.total),
+      SUM(CASE WHEN o.status IN (%2$s) THEN 1 ELSE 0 END),
+      SUM(CASE WHEN o.status IN (%2$s) THEN o.item_count ELSE 0 END),
+      SUM(CASE WHEN o.status IN (%2$s) THEN o.total ELSE 0 END)
+    FROM tb_order o
+    WHERE o.status IN (%1$s)
+    GROUP BY CAST(o.moment AS DATE)
+    """.formatted(PLACED, PAID);
+
+  private static final String TOP_PRODUCTS = """
+    SELECT s.product_id, p.name, s.units, s.revenue, s.paid_units, s.paid_revenue
+    FROM tb_sales_by_product s
+    LEFT JOIN tb_product p ON p.id = s.product_id
+    WHERE s.units > 0
+    ORDER BY s.revenue DESC, s.product_id
+    LIMIT ?
+    """;
+
+  private static final String TOP_CATEGORIES = """
+    SELECT s.category_id, c.name, s.units, s.revenue, s.paid_units, s.paid_revenue
+    FROM tb_sales_by_category s
+    LEFT JOIN tb_category c ON c.id = s.category_id
+    WHERE s.units > 0
+    ORDER BY s.revenue DESC, s.category_id
+    LIMIT ?
+    """;
+
+  private static final String DAYS = """
+    SELECT sales_date, orders, units, revenue, paid_orders, paid_units, paid_revenue
+    FROM tb_sales_by_day
+    WHERE sales_date >= ? AND sales_date <= ?
+    ORDER BY sales_date
+    """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public SalesRollupRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Trava e retorna os ids dos deltas mais antigos (FOR UPDATE: outra réplica espera o lote)
+   */
+  public List<Long> lockDeltaIds(int limit) {
+    return jdbcTemplate.queryForList(SELECT_DELTA_IDS, Long.class, limit);
+  }
+
+  /**
+   * Soma os deltas informados por produto, categoria e dia, aplica nos rollups e os apaga
+   */
+  public void applyDeltas(List<Long> deltaIds) {
+    String placeholders = placeholders(deltaIds.size());
+    Object[] ids = deltaIds.toArray();
+    merge(PRODUCT_DELTAS.formatted(placeholders), ids, UPDATE_PRODUCT, INSERT_PRODUCT);
+    merge(CATEGORY_DELTAS.formatted(placeholders), ids, UPDATE_CATEGORY, INSERT_CATEGORY);
+    merge(DAY_DELTAS.formatted(placeholders), ids, UPDATE_DAY, INSERT_DAY);
+    jdbcTemplate.update("DELETE FROM tb_sales_delta WHERE id IN (" + placeholders + ")", ids);
+  }
+
+  /**
+   * Recalcula os rollups a partir de tb_order. Deve rodar em REPEATABLE READ: os deltas apagados
+   * são exatamente os dos pedidos que a reconstrução enxerga; os de transações posteriores ficam
+   * para o próximo lote
+   */
+  public void rebuild() {
+    jdbcTemplate.update("DELETE FROM tb_sales_delta");
+    jdbcTemplate.update("DELETE FROM tb_sales_by_product");
+    jdbcTemplate.update("DELETE FROM tb_sales_by_category");
+    jdbcTemplate.update("DELETE FROM tb_sales_by_day");
+    jdbcTemplate.update(REBUILD_PRODUCT);
+    jdbcTemplate.update(REBUILD_CATEGORY);
+    jdbcTemplate.update(REBUILD_DAY);
+  }
+
+  public boolean isEmpty() {
+    return jdbcTemplate.queryForList("SELECT sales_date FROM tb_sales_by_day LIMIT 1").isEmpty();
+  }
+
+  public List<ProductSalesDTO> findTopProducts(int limit) {
+    return jdbcTemplate.query(TOP_PRODUCTS, (rs, rowNum) -> new ProductSalesDTO(rs.getLong(1), rs.getString(2),
+      rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5), rs.getBigDecimal(6)), limit);
+  }
+
+  public List<CategorySalesDTO> findTopCategories(int limit) {
+    return jdbcTemplate.query(TOP_CATEGORIES, (rs, rowNum) -> new CategorySalesDTO(rs.getLong(1), rs.getString(2),
+      rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5), rs.getBigDecimal(6)), limit);
+  }
+
+  public List<DailySalesDTO> findDays(LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(DAYS, (rs, rowNum) -> new DailySalesDTO(rs.getObject(1, LocalDate.class),
+      rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5), rs.getLong(6), rs.getBigDecimal(7)), from, to);
+  }
+
+  // UPDATE incremental em batch; as chaves que não existiam (0 linhas) vão em um batch de INSERT
+  private void merge(String deltasSql, Object[] deltaIds, String updateSql, String insertSql) {
+    List<Object[]> rows = jdbcTemplate.query(deltasSql, (rs, rowNum) -> keyLast(rs), deltaIds);
+    if (rows.isEmpty()) {
+      return;
+    }
+    int[] updated = jdbcTemplate.batchUpdate(updateSql, rows);
+    List<Object[]> missing = new ArrayList<>();
+    for (int i = 0; i < rows.size(); i++) {
+      if (updated[i] == 0) {
+        missing.add(rows.get(i));
+      }
+    }
+    if (!missing.isEmpty()) {
+      jdbcTemplate.batchUpdate(insertSql, missing);
+    }
+  }
+
+  private static Object[] keyLast(ResultSet rs) throws SQLException {
+    int columns = rs.getMetaData().getColumnCount();
+    Object[] row = new Object[columns];
+    for (int i = 2; i <= columns; i++) {
+      row[i - 2] = rs.getObject(i);
+    }
+    row[columns - 1] = rs.getObject(1);
+    return row;
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+
+  private static String ordinals(Predicate<OrderStatus> filter) {
+    return Arrays.stream(OrderStatus.values())
+      .filter(filter)
+      .map(status -> String.valueOf(status.ordinal()))
+      .collect(Collectors.joining(", "));
+  }
+}
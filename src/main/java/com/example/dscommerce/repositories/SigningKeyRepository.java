@@ -0,0 +1,11 @@
+package com.example.dscommerce.repositories;
+
+import com.example.dscommerce.entities.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+  List<SigningKey> findAllByOrderByCreatedAtDesc();
+}
@@ -3,6 +3,7 @@ package com.example.dscommerce.repositories;
 import com.example.dscommerce.entities.User;
 import com.example.dscommerce.projections.UserDetailsProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -10,10 +11,10 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository  extends JpaRepository<User,Integer> {
+public interface UserRepository  extends JpaRepository<User,Long> {
 
   @Query(nativeQuery = true, value = """
-			SELECT tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
+			SELECT tb_user.id AS userId, tb_user.email AS username, tb_user.name, tb_user.password, tb_role.id AS roleId, tb_role.authority
 			FROM tb_user
 			INNER JOIN tb_user_role ON tb_user.id = tb_user_role.user_id
 			INNER JOIN tb_role ON tb_role.id = tb_user_role.role_id
@@ -22,4 +23,8 @@ public interface UserRepository  extends JpaRepository<User,Integer> {
   List<UserDetailsProjection> searchUserAndRolesByEmail(String email);
 
 	Optional<User> findByEmail(String email);
+
+  @Modifying
+  @Query("UPDATE User obj SET obj.password = :password WHERE obj.email = :email")
+  int updatePassword(String email, String password);
 }
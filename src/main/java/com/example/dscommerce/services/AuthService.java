@@ -1,8 +1,11 @@
 package com.example.dscommerce.services;
 
-import com.example.dscommerce.entities.User;
 import com.example.dscommerce.services.exceptions.ForbiddenException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -11,10 +14,32 @@ public class AuthService {
   @Autowired
   private UserService userService;
 
+  /**
+   * Decide apenas pelos claims do token (user_id e authorities), sem consultar tb_user;
+   * tokens emitidos antes do claim user_id caem no resumo do usuário em cache
+   */
   public void validateSelfOrAdmin(Long userId) {
-    User user = userService.authenticated();
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt
+      && jwt.getClaim("user_id") instanceof Number tokenUserId) {
+      if (!hasAuthority(authentication, "ROLE_ADMIN") && tokenUserId.longValue() != userId) {
+        throw new ForbiddenException("Access denied");
+      }
+      return;
+    }
+
+    AuthenticatedUser user = userService.authenticatedUser();
     if (!user.hasRole("ROLE_ADMIN") && !user.getId().equals(userId)) {
       throw new ForbiddenException("Access denied");
     }
   }
+
+  private static boolean hasAuthority(Authentication authentication, String authority) {
+    for (GrantedAuthority granted : authentication.getAuthorities()) {
+      if (granted.getAuthority().equals(authority)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
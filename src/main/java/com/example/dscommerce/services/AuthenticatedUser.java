@@ -0,0 +1,42 @@
+package com.example.dscommerce.services;
+
+import java.util.Set;
+
+/**
+ * Resumo imutável do usuário autenticado (id, e-mail, nome e papéis): o suficiente para
+ * decisões de autorização sem carregar a entidade User
+ */
+public final class AuthenticatedUser {
+
+  private final Long id;
+  private final String email;
+  private final String name;
+  private final Set<String> roles;
+
+  public AuthenticatedUser(Long id, String email, String name, Set<String> roles) {
+    this.id = id;
+    this.email = email;
+    this.name = name;
+    this.roles = Set.copyOf(roles);
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Set<String> getRoles() {
+    return roles;
+  }
+
+  public boolean hasRole(String roleName) {
+    return roles.contains(roleName);
+  }
+}
@@ -3,23 +3,87 @@ package com.example.dscommerce.services;
 import com.example.dscommerce.dto.CategoryDTO;
 import com.example.dscommerce.entities.Category;
 import com.example.dscommerce.repositories.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * As categorias quase nunca mudam: a lista é mantida em memória como um snapshot imutável
+ * (lista + ETag) e trocada atomicamente em refresh(), sem consulta ao banco por requisição
+ */
 @Service
 public class CategoryService {
 
   private final CategoryRepository categoryRepository;
+  private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>();
 
   public CategoryService(CategoryRepository categoryRepository) {
     this.categoryRepository = categoryRepository;
   }
 
-  @Transactional(readOnly = true)
+  @PostConstruct
+  public void init() {
+    refresh();
+  }
+
   public List<CategoryDTO> findAll() {
-    List<Category> result = categoryRepository.findAll();
-    return  result.stream().map(CategoryDTO::new).toList();
+    return snapshot().getCategories();
   };
+
+  public CategorySnapshot snapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Recarrega as categorias do banco; chamado periodicamente para captar alterações feitas
+   * fora da aplicação e deve ser chamado por qualquer escrita em tb_category
+   */
+  @Scheduled(fixedDelayString = "${categories.snapshot.refresh-interval:5m}",
+    initialDelayString = "${categories.snapshot.refresh-interval:5m}")
+  @Transactional(readOnly = true)
+  public void refresh() {
+    List<Category> result = categoryRepository.findAll();
+    List<CategoryDTO> categories = result.stream().map(CategoryDTO::new).toList();
+    snapshot.set(new CategorySnapshot(categories, eTagOf(categories)));
+  }
+
+  // ETag forte: hash do conteúdo serializado, muda somente quando alguma categoria muda
+  private static String eTagOf(List<CategoryDTO> categories) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (CategoryDTO category : categories) {
+        digest.update((category.getId() + ":" + category.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+      }
+      return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static final class CategorySnapshot {
+
+    private final List<CategoryDTO> categories;
+    private final String eTag;
+
+    private CategorySnapshot(List<CategoryDTO> categories, String eTag) {
+      this.categories = categories;
+      this.eTag = eTag;
+    }
+
+    public List<CategoryDTO> getCategories() {
+      return categories;
+    }
+
+    public String getETag() {
+      return eTag;
+    }
+  }
 }
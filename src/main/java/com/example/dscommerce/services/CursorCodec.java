@@ -0,0 +1,35 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.services.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica a posição de uma listagem keyset (chave de ordenação + id do último item)
+ * em um token opaco e seguro para URL
+ */
+public final class CursorCodec {
+
+  private static final String SEPARATOR = "\u0000";
+
+  private CursorCodec() {}
+
+  public static String encode(String... parts) {
+    byte[] bytes = String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  public static String[] decode(String cursor, int expectedParts) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = decoded.split(SEPARATOR, -1);
+      if (parts.length != expectedParts) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      return parts;
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
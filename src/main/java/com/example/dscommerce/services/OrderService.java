@@ -1,44 +1,103 @@
 package com.example.dscommerce.services;
 
+import com.example.dscommerce.dto.ClientDTO;
+import com.example.dscommerce.dto.CursorPageDTO;
 import com.example.dscommerce.dto.OrderDTO;
 import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.dto.OrderSummaryDTO;
+import com.example.dscommerce.dto.ProductDTO;
+import com.example.dscommerce.entities.IdempotencyKey;
+import com.example.dscommerce.entities.Money;
 import com.example.dscommerce.entities.Order;
 import com.example.dscommerce.entities.OrderItem;
 import com.example.dscommerce.entities.OrderStatus;
 import com.example.dscommerce.entities.Product;
 import com.example.dscommerce.entities.User;
-import com.example.dscommerce.repositories.OrderItemRepository;
 import com.example.dscommerce.repositories.OrderRepository;
+import com.example.dscommerce.repositories.OrderSummaryRepository;
 import com.example.dscommerce.repositories.ProductRepository;
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import com.example.dscommerce.services.exceptions.ForbiddenException;
 import com.example.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.example.dscommerce.services.idempotency.IdempotencyService;
+import com.example.dscommerce.services.analytics.SalesRollup;
+import com.example.dscommerce.services.outbox.OrderEventOutbox;
+import com.example.dscommerce.services.placement.OrderPlacementQueue;
+import com.example.dscommerce.services.placement.PendingOrder;
+import com.example.dscommerce.services.stock.StockReservation;
 import jakarta.validation.Valid;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final OrderRepository orderRepository;
+  private final OrderSummaryRepository orderSummaryRepository;
   private final ProductRepository productRepository;
-  private final OrderItemRepository orderItemRepository;
+  private final StockReservation stockReservation;
+  private final ProductService productService;
   private final UserService userService;
   private final AuthService authService;
+  private final IdempotencyService idempotencyService;
+  private final OrderEventOutbox orderEventOutbox;
+  private final SalesRollup salesRollup;
+  private final Optional<OrderPlacementQueue> placementQueue;
+  private final TransactionTemplate transactionTemplate;
 
 
-  public OrderService(OrderRepository orderRepository, ProductRepository productRepository, OrderItemRepository orderItemRepository, UserService userService, AuthService authService) {
+  public OrderService(OrderRepository orderRepository, OrderSummaryRepository orderSummaryRepository,
+                      ProductRepository productRepository,
+                      StockReservation stockReservation, ProductService productService,
+                      UserService userService, AuthService authService,
+                      IdempotencyService idempotencyService, OrderEventOutbox orderEventOutbox,
+                      SalesRollup salesRollup,
+                      Optional<OrderPlacementQueue> placementQueue,
+                      PlatformTransactionManager transactionManager) {
     this.orderRepository = orderRepository;
+    this.orderSummaryRepository = orderSummaryRepository;
     this.productRepository = productRepository;
-    this.orderItemRepository = orderItemRepository;
+    this.stockReservation = stockReservation;
+    this.productService = productService;
     this.userService = userService;
     this.authService = authService;
+    this.idempotencyService = idempotencyService;
+    this.orderEventOutbox = orderEventOutbox;
+    this.salesRollup = salesRollup;
+    this.placementQueue = placementQueue;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
+  // Pedido aceito de forma assíncrona e ainda não gravado: responde PENDING
   @Transactional(readOnly = true)
   public OrderDTO findById(Long id){
-    Order order = orderRepository.findById(id).orElseThrow(()-> new ResourceNotFoundException("Order not found"));
+    Optional<PendingOrder> pending = placementQueue.flatMap(queue -> queue.find(id));
+    if (pending.isPresent()) {
+      authService.validateSelfOrAdmin(pending.get().getClientId());
+      return toPendingDTO(pending.get());
+    }
+
+    Order order = orderRepository.searchByIdWithItems(id).orElseThrow(()-> new ResourceNotFoundException("Order not found"));
 
     authService.validateSelfOrAdmin(order.getClient().getId());
 
@@ -46,19 +105,221 @@ public class OrderService {
   }
 
   /**
-   * Método principal de inserção de pedido
-   * Responsabilidade: Coordenar o fluxo de criação do pedido
+   * Histórico de pedidos por cursor (keyset), do mais recente ao mais antigo ou, com sort=total,
+   * do maior total ao menor. Cliente vê só os próprios pedidos; admin vê todos ou os de clientId.
+   * Pedidos ainda PENDING (orders.placement.mode=async) aparecem depois de gravados
+   */
+  @Transactional(readOnly = true)
+  public CursorPageDTO<OrderSummaryDTO> findAll(Long clientId, OrderStatus status, Instant from, Instant to,
+                                                BigDecimal minTotal, String sort, String cursor, int size) {
+    boolean byTotal = switch (sort == null ? "moment" : sort) {
+      case "moment" -> false;
+      case "total" -> true;
+      default -> throw new BadRequestException("Invalid sort: " + sort);
+    };
+    AuthenticatedUser user = userService.authenticatedUser();
+    if (!user.hasRole("ROLE_ADMIN")) {
+      if (clientId != null && !clientId.equals(user.getId())) {
+        throw new ForbiddenException("Access denied");
+      }
+      clientId = user.getId();
+    }
+
+    int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    Instant lastMoment = null;
+    BigDecimal lastTotal = null;
+    Long lastId = null;
+    if (StringUtils.hasText(cursor)) {
+      // a posição é o valor da ordenação (moment ou total) e o id
+      String[] position = CursorCodec.decode(cursor, 2);
+      try {
+        if (byTotal) {
+          lastTotal = new BigDecimal(position[0]);
+        } else {
+          lastMoment = Instant.parse(position[0]);
+        }
+        lastId = Long.valueOf(position[1]);
+      } catch (DateTimeParseException | NumberFormatException e) {
+        throw new BadRequestException("Invalid cursor");
+      }
+    }
+
+    List<OrderSummaryDTO> result = byTotal
+      ? orderSummaryRepository.findPageByTotal(clientId, status, from, to, minTotal, lastTotal, lastId, pageSize + 1)
+      : orderSummaryRepository.findPage(clientId, status, from, to, minTotal, lastMoment, lastId, pageSize + 1);
+    boolean hasNext = result.size() > pageSize;
+    List<OrderSummaryDTO> page = hasNext ? result.subList(0, pageSize) : result;
+
+    String nextCursor = null;
+    if (hasNext) {
+      OrderSummaryDTO last = page.getLast();
+      String position = byTotal ? last.getTotal().toPlainString() : last.getMoment().toString();
+      nextCursor = CursorCodec.encode(position, String.valueOf(last.getId()));
+    }
+    return new CursorPageDTO<>(page, nextCursor);
+  }
+
+  /**
+   * Método principal de inserção de pedido (sem Idempotency-Key)
    */
   @Transactional
   public @Valid OrderDTO insert(OrderDTO orderDTO) {
+    return createOrder(orderDTO);
+  }
+
+  /**
+   * Inserção com Idempotency-Key (escopo: cliente autenticado)
+   * A chave é gravada na mesma transação do pedido, antes dele: uma requisição duplicada em outra
+   * réplica espera na chave primária em vez de criar outro pedido. Sem @Transactional aqui: a espera
+   * por uma duplicata em andamento não segura conexão
+   */
+  public OrderDTO insert(OrderDTO orderDTO, String idempotencyKey) {
+    String key = scopedKey(idempotencyKey);
+    String requestHash = IdempotencyService.hash(canonicalItems(orderDTO));
+
+    return idempotencyService.execute(key, requestHash, () -> transactionTemplate.execute(status -> {
+      IdempotencyKey claim = idempotencyService.claim(key, requestHash);
+      OrderDTO created = createOrder(orderDTO);
+      claim.setResourceId(created.getId());
+      return created;
+    }), this::findCreated);
+  }
+
+  public boolean isAsyncPlacement() {
+    return placementQueue.isPresent();
+  }
+
+  /**
+   * orders.placement.mode=async: valida o pedido (produtos pelo cache de detalhe, sem transação),
+   * reserva o id e enfileira. O pedido é gravado depois, em lote; até lá GET /orders/{id} responde PENDING.
+   * Com Idempotency-Key, a chave (já com o id reservado) e o pedido pendente são gravados na mesma
+   * transação antes de enfileirar: com store database, uma queda entre os dois não deixa a chave
+   * apontando para um pedido que nunca vai existir
+   */
+  public OrderDTO enqueue(OrderDTO orderDTO, String idempotencyKey) {
+    OrderPlacementQueue queue = placementQueue.orElseThrow();
+    if (idempotencyKey == null) {
+      PendingOrder order = prepare(orderDTO, queue);
+      OrderDTO accepted = toPendingDTO(order);
+      queue.submit(order);
+      return accepted;
+    }
+
+    String key = scopedKey(idempotencyKey);
+    String requestHash = IdempotencyService.hash(canonicalItems(orderDTO));
+    return idempotencyService.execute(key, requestHash, () -> {
+      PendingOrder order = prepare(orderDTO, queue);
+      OrderDTO accepted = toPendingDTO(order);
+      try {
+        transactionTemplate.executeWithoutResult(status -> {
+          idempotencyService.claim(key, requestHash).setResourceId(order.getId());
+          queue.save(order);
+        });
+      } catch (RuntimeException e) {
+        // store memory não participa da transação
+        queue.discard(order);
+        throw e;
+      }
+      if (!queue.offer(order)) {
+        transactionTemplate.executeWithoutResult(status -> {
+          queue.discard(order);
+          idempotencyService.release(key);
+        });
+        throw OrderPlacementQueue.full();
+      }
+      return accepted;
+    }, this::findPlaced);
+  }
+
+  /**
+   * Responsabilidade: Coordenar o fluxo de criação do pedido
+   */
+  private OrderDTO createOrder(OrderDTO orderDTO) {
     Order order = createNewOrder();
     associateAuthenticatedClient(order);
     addItemsToOrder(order, orderDTO.getItems());
+    SortedMap<Long, Integer> quantities = stockQuantities(order);
+    order.setStockApplied(quantities.isEmpty() || !stockReservation.isDeferred());
     persistOrder(order);
+    orderEventOutbox.orderCreated(order);
+    salesRollup.ordersPlaced(List.of(order.getId()));
+    reserveStock(quantities);
 
     return new OrderDTO(order);
   }
 
+  // Pedido já criado com a mesma chave (pertence ao cliente autenticado, pelo escopo da chave)
+  private OrderDTO findCreated(Long id) {
+    return orderRepository.searchByIdWithItems(id)
+      .map(OrderDTO::new)
+      .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+  }
+
+  private OrderDTO findPlaced(Long id) {
+    return placementQueue.flatMap(queue -> queue.find(id))
+      .map(this::toPendingDTO)
+      .orElseGet(() -> findCreated(id));
+  }
+
+  private String scopedKey(String idempotencyKey) {
+    return userService.authenticatedUser().getId() + ":" + IdempotencyService.validate(idempotencyKey);
+  }
+
+  /**
+   * Responsabilidade: Montar o pedido pendente com o cliente autenticado e o preço atual de cada produto
+   * Itens repetidos do mesmo produto são somados
+   */
+  private PendingOrder prepare(OrderDTO orderDTO, OrderPlacementQueue queue) {
+    AuthenticatedUser client = userService.authenticatedUser();
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    for (OrderItemDTO itemDTO : orderDTO.getItems()) {
+      quantities.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+    }
+
+    List<PendingOrder.Item> items = new ArrayList<>();
+    List<Long> missing = new ArrayList<>();
+    quantities.forEach((productId, quantity) -> {
+      try {
+        ProductDTO product = productService.findById(productId);
+        items.add(new PendingOrder.Item(productId, quantity, Money.of(product.getPrice())));
+      } catch (ResourceNotFoundException e) {
+        missing.add(productId);
+      }
+    });
+    if (!missing.isEmpty()) {
+      throw new ResourceNotFoundException("Products not found: " + missing);
+    }
+    return new PendingOrder(queue.nextOrderId(), client.getId(), client.getName(), Instant.now(), items);
+  }
+
+  // Sempre PENDING: o status definido pelo writer só vale depois do commit em tb_order.
+  // Nome e imagem vêm do cache de detalhe do produto (o pedido pendente guarda só id, quantidade e preço)
+  private OrderDTO toPendingDTO(PendingOrder order) {
+    OrderDTO dto = new OrderDTO(order.getId(), order.getMoment(), OrderStatus.PENDING,
+      new ClientDTO(order.getClientId(), order.getClientName()), null);
+    for (PendingOrder.Item item : order.getItems()) {
+      ProductDTO product = findProductOrNull(item.getProductId());
+      dto.getItems().add(new OrderItemDTO(item.getProductId(), product != null ? product.getName() : null,
+        item.getPrice().toBigDecimal(), item.getQuantity(), product != null ? product.getImgUrl() : null));
+    }
+    return dto;
+  }
+
+  private ProductDTO findProductOrNull(Long productId) {
+    try {
+      return productService.findById(productId);
+    } catch (ResourceNotFoundException e) {
+      return null;
+    }
+  }
+
+  // Itens na ordem enviada: mesma chave com outro corpo é recusada
+  private static String canonicalItems(OrderDTO orderDTO) {
+    return orderDTO.getItems().stream()
+      .map(item -> item.getProductId() + "x" + item.getQuantity())
+      .collect(Collectors.joining(","));
+  }
+
   /**
    * Responsabilidade: Criar uma nova entidade Order com valores iniciais
    */
@@ -79,27 +340,74 @@ public class OrderService {
 
   /**
    * Responsabilidade: Adicionar todos os itens ao pedido
+   * Os produtos são carregados em uma única consulta (IN) antes de montar os itens
    */
   private void addItemsToOrder(Order order, List<OrderItemDTO> itemsDTO) {
+    Map<Long, Product> products = loadProducts(itemsDTO);
     for (OrderItemDTO itemDTO : itemsDTO) {
-      OrderItem orderItem = createOrderItem(order, itemDTO);
-      order.getItems().add(orderItem);
+      OrderItem orderItem = createOrderItem(order, itemDTO, products);
+      order.addItem(orderItem);
     }
   }
 
+  /**
+   * Responsabilidade: Carregar todos os produtos do pedido em um único round trip
+   * e falhar com um único 404 listando os ids inexistentes
+   */
+  private Map<Long, Product> loadProducts(List<OrderItemDTO> itemsDTO) {
+    Set<Long> ids = itemsDTO.stream()
+      .map(OrderItemDTO::getProductId)
+      .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    Map<Long, Product> products = productRepository.findAllById(ids).stream()
+      .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<Long> missing = ids.stream().filter(id -> !products.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      throw new ResourceNotFoundException("Products not found: " + missing);
+    }
+    return products;
+  }
+
   /**
    * Responsabilidade: Criar um único OrderItem a partir do DTO
    */
-  private OrderItem createOrderItem(Order order, OrderItemDTO itemDTO) {
-    Product product = productRepository.getReferenceById(itemDTO.getProductId());
+  private OrderItem createOrderItem(Order order, OrderItemDTO itemDTO, Map<Long, Product> products) {
+    Product product = products.get(itemDTO.getProductId());
     return new OrderItem(order, product, itemDTO.getQuantity(), product.getPrice());
   }
 
   /**
    * Responsabilidade: Persistir o pedido e seus itens no banco de dados
+   * Os itens são persistidos em cascata e enviados em batch pelo Hibernate
    */
   private void persistOrder(Order order) {
     orderRepository.save(order);
-    orderItemRepository.saveAll(order.getItems());
+  }
+
+  /**
+   * Responsabilidade: Somar as quantidades por produto controlado (stock != null), em ordem de id
+   */
+  private SortedMap<Long, Integer> stockQuantities(Order order) {
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    for (OrderItem item : order.getItems()) {
+      if (item.getProduct().getStock() != null) {
+        quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+      }
+    }
+    return quantities;
+  }
+
+  /**
+   * Responsabilidade: Reservar o estoque dos produtos controlados
+   * É o último passo antes do commit: no modo database os locks das linhas de produto
+   * duram só até o commit; no modo memory a reserva não toca tb_product.
+   * Sem saldo, o pedido inteiro é desfeito (409)
+   */
+  private void reserveStock(SortedMap<Long, Integer> quantities) {
+    if (quantities.isEmpty()) {
+      return;
+    }
+    stockReservation.reserve(quantities);
   }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.dto.OrderStatusDTO;
+import com.example.dscommerce.dto.PaymentDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.entities.Payment;
+import com.example.dscommerce.projections.OrderStatusProjection;
+import com.example.dscommerce.repositories.OrderRepository;
+import com.example.dscommerce.repositories.PaymentRepository;
+import com.example.dscommerce.repositories.ProductStockRepository;
+import com.example.dscommerce.services.exceptions.ConflictException;
+import com.example.dscommerce.services.analytics.SalesRollup;
+import com.example.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.example.dscommerce.services.outbox.OrderEventOutbox;
+import com.example.dscommerce.services.placement.OrderPlacementQueue;
+import com.example.dscommerce.services.stock.StockReservation;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+
+/**
+ * Pagamento e mudanças de status dos pedidos, seguindo OrderStatus.canChangeTo.
+ *
+ * Nenhuma mudança carrega o agregado: o status e a versão são lidos por projeção e a troca é um
+ * UPDATE condicional de uma linha (status e versão lidos). Se outra transação mudou o pedido no
+ * meio, o UPDATE não altera nada e a mudança é recusada com 409, sem lost update.
+ */
+@Service
+public class OrderStatusService {
+
+  private final OrderRepository orderRepository;
+  private final PaymentRepository paymentRepository;
+  private final ProductStockRepository productStockRepository;
+  private final StockReservation stockReservation;
+  private final AuthService authService;
+  private final OrderEventOutbox orderEventOutbox;
+  private final SalesRollup salesRollup;
+  private final Optional<OrderPlacementQueue> placementQueue;
+
+  public OrderStatusService(OrderRepository orderRepository, PaymentRepository paymentRepository,
+                            ProductStockRepository productStockRepository, StockReservation stockReservation,
+                            AuthService authService,
+                            OrderEventOutbox orderEventOutbox, SalesRollup salesRollup,
+                            Optional<OrderPlacementQueue> placementQueue) {
+    this.orderRepository = orderRepository;
+    this.paymentRepository = paymentRepository;
+    this.productStockRepository = productStockRepository;
+    this.stockReservation = stockReservation;
+    this.authService = authService;
+    this.orderEventOutbox = orderEventOutbox;
+    this.salesRollup = salesRollup;
+    this.placementQueue = placementQueue;
+  }
+
+  /**
+   * Confirma o pagamento (WAITING_PAYMENT -> PAID) e grava o Payment.
+   * Callbacks repetidos do gateway são deduplicados pelo status: pedido já pago responde o
+   * pagamento existente com duas leituras por chave primária e nenhuma escrita. Dois callbacks
+   * simultâneos disputam o mesmo UPDATE condicional e só um deles grava
+   */
+  @Transactional
+  public PaymentDTO pay(Long orderId) {
+    OrderStatusProjection order = findStatus(orderId);
+    authService.validateSelfOrAdmin(order.getClientId());
+
+    if (order.getStatus() == OrderStatus.WAITING_PAYMENT
+      && orderRepository.updateStatus(orderId, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID, order.getVersion()) == 1) {
+      return new PaymentDTO(markedPaid(orderId));
+    }
+    // já pago (inclusive por um callback concorrente, que já fez commit quando o UPDATE acima voltou 0)
+    return paymentRepository.findById(orderId)
+      .map(PaymentDTO::new)
+      .orElseThrow(() -> new ConflictException("Order cannot be paid: " + findStatus(orderId).getStatus()));
+  }
+
+  /**
+   * Mudança de status pelo admin. Pedir o status atual é idempotente; transição fora da máquina
+   * de estados ou versão diferente da informada respondem 409. CANCELED devolve o estoque
+   */
+  @Transactional
+  public OrderStatusDTO changeStatus(Long orderId, OrderStatusDTO dto) {
+    OrderStatusProjection order = findStatus(orderId);
+    OrderStatus from = order.getStatus();
+    OrderStatus to = dto.getStatus();
+
+    if (dto.getVersion() != null && !dto.getVersion().equals(order.getVersion())) {
+      throw new ConflictException("Order was modified (current version: " + order.getVersion() + ")");
+    }
+    if (from == to) {
+      return new OrderStatusDTO(orderId, from, order.getVersion());
+    }
+    if (!from.canChangeTo(to)) {
+      throw new ConflictException("Invalid status transition: " + from + " -> " + to);
+    }
+    if (orderRepository.updateStatus(orderId, from, to, order.getVersion()) == 0) {
+      throw new ConflictException("Order was modified concurrently");
+    }
+
+    if (to == OrderStatus.PAID) {
+      markedPaid(orderId);
+    } else {
+      orderEventOutbox.statusChanged(orderId, from, to);
+      salesRollup.statusChanged(orderId, from, to);
+    }
+    if (to == OrderStatus.CANCELED) {
+      releaseStock(orderId);
+    }
+    return new OrderStatusDTO(orderId, to, order.getVersion() + 1);
+  }
+
+  // Pedido aceito em orders.placement.mode=async e ainda não gravado: não pode mudar de status ainda
+  private OrderStatusProjection findStatus(Long orderId) {
+    return orderRepository.searchStatusById(orderId).orElseThrow(() -> {
+      if (placementQueue.flatMap(queue -> queue.find(orderId)).isPresent()) {
+        return new ConflictException("Order is still being placed");
+      }
+      return new ResourceNotFoundException("Order not found");
+    });
+  }
+
+  private Payment markedPaid(Long orderId) {
+    Payment payment = paymentRepository.save(new Payment(null, Instant.now(), orderRepository.getReferenceById(orderId)));
+    orderEventOutbox.statusChanged(orderId, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID);
+    salesRollup.statusChanged(orderId, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID);
+    return payment;
+  }
+
+  private void releaseStock(Long orderId) {
+    SortedMap<Long, Integer> quantities = productStockRepository.sumQuantities(List.of(orderId));
+    if (quantities.isEmpty()) {
+      return;
+    }
+    stockReservation.release(quantities);
+  }
+}
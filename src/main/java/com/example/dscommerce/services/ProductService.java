@@ -1,44 +1,158 @@
 package com.example.dscommerce.services;
 
+import com.example.dscommerce.config.CacheConfig;
 import com.example.dscommerce.dto.CategoryDTO;
+import com.example.dscommerce.dto.CursorPageDTO;
 import com.example.dscommerce.dto.ProductMinDTO;
 import com.example.dscommerce.entities.Category;
+import com.example.dscommerce.entities.Money;
 import com.example.dscommerce.entities.Product;
 import com.example.dscommerce.dto.ProductDTO;
 import com.example.dscommerce.repositories.CategoryRepository;
 import com.example.dscommerce.repositories.ProductRepository;
+import com.example.dscommerce.services.exceptions.BadRequestException;
 import com.example.dscommerce.services.exceptions.DatabaseException;
 import com.example.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.example.dscommerce.services.search.ProductSearchIndex;
+import com.example.dscommerce.services.stock.StockReservation;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
   private final ProductRepository productRepository;
   private final CategoryRepository categoryRepository;
+  private final Optional<ProductSearchIndex> searchIndex;
+  private final StockReservation stockReservation;
+  private final Cache countCache;
+  private final Cache detailCache;
+
+  private static final int MAX_SCROLL_SIZE = 100;
 
-  public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+  public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                        Optional<ProductSearchIndex> searchIndex, StockReservation stockReservation,
+                        CacheManager cacheManager) {
     this.productRepository = productRepository;
     this.categoryRepository = categoryRepository;
+    this.searchIndex = searchIndex;
+    this.stockReservation = stockReservation;
+    this.countCache = cacheManager.getCache(CacheConfig.PRODUCT_COUNT);
+    this.detailCache = cacheManager.getCache(CacheConfig.PRODUCT_DETAIL);
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * Leitura pelo cache de detalhe: um hit não abre transação nem consulta o banco.
+   * No miss, produto e categorias vêm em uma única consulta; ids inexistentes também
+   * ficam em cache (por pouco tempo), e insert/update/delete invalidam a entrada após o commit.
+   * As baixas e devoluções de estoque dos pedidos não invalidam: senão os produtos mais vendidos
+   * seriam justamente os que nunca acertam o cache. O stock do detalhe é informativo e pode estar
+   * defasado até cache.product-detail.ttl; quem decide a venda é a StockReservation
+   */
   public ProductDTO findById(Long id){
-    Product product = productRepository.findById(id).orElseThrow(
-      ()-> new ResourceNotFoundException("Product not found")
-    );
-    return new ProductDTO(product);
+    ProductDTO dto = detailCache.get(id, () -> productRepository.searchByIdWithCategories(id)
+      .map(ProductDTO::new)
+      .orElse(null));
+    if (dto == null) {
+      throw new ResourceNotFoundException("Product not found");
+    }
+    return dto;
   }
 
+  /**
+   * Com o índice de busca ativo, um termo sem ordenação explícita é resolvido pelo índice
+   * (ordem de relevância); sem termo, com sort ou em product.search.mode=like usa o LIKE no banco.
+   *
+   * Sem includeTotal a resposta é um Slice e nenhum COUNT é executado; com includeTotal o total
+   * vem do índice ou de um cache de vida curta por termo, e a resposta é uma Page
+   */
   @Transactional(readOnly = true)
-  public Page<ProductMinDTO> findAll(String name, Pageable pageable) {
-    Page<Product> result = productRepository.searchByName(name, pageable);
-    return  result.map(ProductMinDTO::new);
+  public Slice<ProductMinDTO> findAll(String name, Pageable pageable, boolean includeTotal) {
+    if (searchIndex.isPresent() && StringUtils.hasText(name) && pageable.getSort().isUnsorted()) {
+      Page<ProductMinDTO> page = searchIndexed(searchIndex.get(), name, pageable);
+      return includeTotal ? page : new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+    }
+    Slice<ProductMinDTO> result = productRepository.searchSliceByName(name, pageable).map(ProductMinDTO::new);
+    if (!includeTotal) {
+      return result;
+    }
+    return new PageImpl<>(result.getContent(), pageable, countByName(name));
+  }
+
+  // UPPER(name) LIKE não diferencia caixa, então termos que só mudam de caixa dividem a mesma entrada
+  private long countByName(String name) {
+    String term = name.toUpperCase(Locale.ROOT);
+    return countCache.get(term, () -> productRepository.countByName(term));
+  }
+
+  /**
+   * Listagem por cursor (keyset) ordenada por (name, id): cada página é uma busca pelo índice
+   * a partir do último item entregue, sem OFFSET e sem COUNT
+   */
+  @Transactional(readOnly = true)
+  public CursorPageDTO<ProductMinDTO> scroll(String name, String cursor, int size) {
+    int pageSize = Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+    String lastName = "";
+    Long lastId = 0L;
+    if (StringUtils.hasText(cursor)) {
+      String[] position = CursorCodec.decode(cursor, 2);
+      lastName = position[0];
+      lastId = parseId(position[1]);
+    }
+
+    List<Product> result = productRepository.searchByNameAfter(name, lastName, lastId, Limit.of(pageSize + 1));
+    boolean hasNext = result.size() > pageSize;
+    List<Product> page = hasNext ? result.subList(0, pageSize) : result;
+
+    String nextCursor = null;
+    if (hasNext) {
+      Product last = page.getLast();
+      nextCursor = CursorCodec.encode(last.getName(), String.valueOf(last.getId()));
+    }
+    return new CursorPageDTO<>(page.stream().map(ProductMinDTO::new).toList(), nextCursor);
+  }
+
+  private static Long parseId(String value) {
+    try {
+      return Long.valueOf(value);
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+
+  private Page<ProductMinDTO> searchIndexed(ProductSearchIndex index, String name, Pageable pageable) {
+    Page<Long> ids = index.search(name, pageable);
+    Map<Long, Product> products = productRepository.findAllById(ids.getContent()).stream()
+      .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<ProductMinDTO> content = ids.getContent().stream()
+      .map(products::get)
+      .filter(Objects::nonNull)
+      .map(ProductMinDTO::new)
+      .toList();
+    return new PageImpl<>(content, pageable, ids.getTotalElements());
   }
 
   @Transactional
@@ -46,6 +160,10 @@ public class ProductService {
     Product entity = new Product();
     copyDtoToEntity(productDTO, entity);
     entity = productRepository.save(entity);
+    reindexAfterCommit(entity);
+    afterCommit(countCache::clear);
+    evictDetailAfterCommit(entity.getId());
+    stockChangedAfterCommit(productDTO, entity.getId());
     return new ProductDTO(entity);
   }
 
@@ -56,6 +174,10 @@ public class ProductService {
       copyDtoToEntity(productDTO, entity);
 
       entity = productRepository.save(entity);
+      reindexAfterCommit(entity);
+      afterCommit(countCache::clear);
+      evictDetailAfterCommit(id);
+      stockChangedAfterCommit(productDTO, id);
       return new ProductDTO(entity);
     } catch (Exception e) {
       throw new ResourceNotFoundException("Product not found");
@@ -65,8 +187,12 @@ public class ProductService {
   private void copyDtoToEntity(ProductDTO productDTO, Product entity) {
     entity.setName(productDTO.getName());
     entity.setDescription(productDTO.getDescription());
-    entity.setPrice(productDTO.getPrice());
+    entity.setPrice(Money.of(productDTO.getPrice()));
     entity.setImgUrl(productDTO.getImgUrl());
+    // sem stock no corpo o saldo atual é mantido
+    if (productDTO.getStock() != null) {
+      entity.setStock(productDTO.getStock());
+    }
 
     entity.getCategories().clear();
     for (CategoryDTO categoryDTO : productDTO.getCategories()){
@@ -88,5 +214,54 @@ public class ProductService {
     } catch (DataIntegrityViolationException e) {
       throw new DatabaseException("Referential integrity failure");
     }
+    searchIndex.ifPresent(index -> afterCommit(() -> index.remove(id)));
+    afterCommit(countCache::clear);
+    evictDetailAfterCommit(id);
+  }
+
+  private void reindexAfterCommit(Product entity) {
+    searchIndex.ifPresent(index -> afterCommit(() -> index.index(entity)));
+  }
+
+  // Saldo informado no cadastro: a reserva de estoque recarrega o produto do banco
+  private void stockChangedAfterCommit(ProductDTO productDTO, Long id) {
+    if (productDTO.getStock() != null) {
+      afterCommit(() -> stockReservation.stockChanged(id));
+    }
+  }
+
+  /**
+   * Chamado pela importação em lote a cada chunk gravado: índice de busca, caches e reserva de
+   * estoque atualizados uma vez por chunk, após o commit
+   */
+  public void importedAfterCommit(Map<Long, String> names, Collection<Long> stockChanged) {
+    searchIndex.ifPresent(index -> afterCommit(() -> index.indexAll(names)));
+    afterCommit(countCache::clear);
+    afterCommit(() -> names.keySet().forEach(detailCache::evict));
+    if (!stockChanged.isEmpty()) {
+      afterCommit(() -> stockChanged.forEach(stockReservation::stockChanged));
+    }
+  }
+
+  // Também no insert: o id novo pode estar em cache como inexistente
+  private void evictDetailAfterCommit(Long id) {
+    afterCommit(() -> detailCache.evict(id));
+  }
+
+  /**
+   * Executa a ação somente depois do commit da transação corrente (ou imediatamente, se não houver),
+   * para que estruturas em memória nunca reflitam uma escrita que sofreu rollback
+   */
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
   }
 }
@@ -1,5 +1,6 @@
 package com.example.dscommerce.services;
 
+import com.example.dscommerce.config.CacheConfig;
 import com.example.dscommerce.dto.UserDTO;
 import com.example.dscommerce.entities.Role;
 import com.example.dscommerce.entities.User;
@@ -7,33 +8,50 @@ import com.example.dscommerce.projections.UserDetailsProjection;
 import com.example.dscommerce.repositories.UserRepository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
-public class UserService  implements UserDetailsService {
+public class UserService  implements UserDetailsService, UserDetailsPasswordService {
+
+  private static final String AUTHENTICATED_ATTRIBUTE = UserService.class.getName() + ".authenticated";
+  private static final String AUTHENTICATED_USER_ATTRIBUTE = UserService.class.getName() + ".authenticatedUser";
 
   @Autowired
   private UserRepository userRepository;
 
+  @Autowired
+  private CacheManager cacheManager;
+
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-    List<UserDetailsProjection> result = userRepository.searchUserAndRolesByEmail(username);
+    List<UserDetailsProjection> result = loadCredentials(username);
 
     if (result.isEmpty()) {
       throw new UsernameNotFoundException("User not found");
     }
 
     User user = new User();
+    user.setId(result.getFirst().getUserId());
     user.setEmail(result.getFirst().getUsername());
     user.setPassword(result.getFirst().getPassword());
 
@@ -43,19 +61,125 @@ public class UserService  implements UserDetailsService {
     return user;
   }
 
+  /**
+   * Grava o hash recalculado no custo atual (DelegatingPasswordEncoder.upgradeEncoding),
+   * chamado pelo login após uma verificação bem-sucedida
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    userRepository.updatePassword(user.getUsername(), newPassword);
+    cacheManager.getCache(CacheConfig.USER_CREDENTIALS).evict(user.getUsername());
+    return user;
+  }
+
+  // Usuário, hash e papéis do login em cache por alguns segundos (rajadas de login do mesmo usuário)
+  @SuppressWarnings("unchecked")
+  private List<UserDetailsProjection> loadCredentials(String username) {
+    Cache cache = cacheManager.getCache(CacheConfig.USER_CREDENTIALS);
+    List<UserDetailsProjection> result = cache.get(username, List.class);
+    if (result == null) {
+      result = userRepository.searchUserAndRolesByEmail(username);
+      if (!result.isEmpty()) {
+        cache.put(username, result);
+      }
+    }
+    return result;
+  }
+
+  // Entidade completa do usuário autenticado, carregada no máximo uma vez por requisição
   protected User authenticated() {
+    return memoized(AUTHENTICATED_ATTRIBUTE, () -> {
+      String username = authenticatedUsername();
+      return userRepository.findByEmail(username)
+        .orElseThrow(() -> new UsernameNotFoundException("Invalid user"));
+    });
+  }
+
+  /**
+   * Id e papéis do usuário autenticado para checagens de autorização: memorizados na requisição
+   * e em cache por e-mail entre requisições, sem consulta a tb_user em um hit.
+   * Quem altera papéis ou o usuário chama evictAuthenticatedUser; alterações feitas direto no banco,
+   * ou vistas por outras réplicas, valem em até cache.authenticated-user.ttl
+   */
+  public AuthenticatedUser authenticatedUser() {
+    return memoized(AUTHENTICATED_USER_ATTRIBUTE, () -> {
+      String username = authenticatedUsername();
+      Cache cache = authenticatedUserCache();
+      AuthenticatedUser user = cache.get(username, AuthenticatedUser.class);
+      if (user == null) {
+        user = loadAuthenticatedUser(username);
+        cache.put(username, user);
+      }
+      return user;
+    });
+  }
+
+  /**
+   * Deve ser chamado por todo código que altera os papéis ou os dados de um usuário: descarta o resumo
+   * e as credenciais em cache desta instância após o commit (nas demais, o TTL é o limite)
+   */
+  public void evictAuthenticatedUser(String email) {
+    Runnable evict = () -> {
+      authenticatedUserCache().evict(email);
+      cacheManager.getCache(CacheConfig.USER_CREDENTIALS).evict(email);
+    };
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict.run();
+      }
+    });
+  }
+
+  private AuthenticatedUser loadAuthenticatedUser(String username) {
+    List<UserDetailsProjection> result = userRepository.searchUserAndRolesByEmail(username);
+    if (result.isEmpty()) {
+      throw new UsernameNotFoundException("Invalid user");
+    }
+    Set<String> roles = result.stream().map(UserDetailsProjection::getAuthority).collect(Collectors.toSet());
+    UserDetailsProjection first = result.getFirst();
+    return new AuthenticatedUser(first.getUserId(), first.getUsername(), first.getName(), roles);
+  }
+
+  private String authenticatedUsername() {
     try {
       Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
       Jwt jwtPrincipal = (Jwt) authentication.getPrincipal();
       String username = jwtPrincipal.getClaim("username");
-
-      return userRepository.findByEmail(username).get();
+      if (username == null) {
+        throw new UsernameNotFoundException("Invalid user");
+      }
+      return username;
     }
     catch (Exception e) {
       throw new UsernameNotFoundException("Invalid user");
     }
   }
 
+  private Cache authenticatedUserCache() {
+    return cacheManager.getCache(CacheConfig.AUTHENTICATED_USER);
+  }
+
+  // Fora de uma requisição web (jobs, testes) apenas delega ao loader
+  @SuppressWarnings("unchecked")
+  private static <T> T memoized(String attribute, Supplier<T> loader) {
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request == null) {
+      return loader.get();
+    }
+    T value = (T) request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+    if (value == null) {
+      value = loader.get();
+      request.setAttribute(attribute, value, RequestAttributes.SCOPE_REQUEST);
+    }
+    return value;
+  }
+
   @Transactional(readOnly = true)
   public UserDTO getMe(){
     User user =  authenticated();
@@ -0,0 +1,69 @@
+package com.example.dscommerce.services.analytics;
+
+import com.example.dscommerce.dto.CategorySalesDTO;
+import com.example.dscommerce.dto.DailySalesDTO;
+import com.example.dscommerce.dto.ProductSalesDTO;
+import com.example.dscommerce.repositories.SalesRollupRepository;
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Painéis de vendas lidos apenas das tabelas de rollup (sem varrer tb_order_item).
+ * Os números refletem os deltas já aplicados por SalesRollupJob (atraso de analytics.rollup.interval)
+ */
+@Service
+public class SalesAnalyticsService {
+
+  private static final int MAX_LIMIT = 1000;
+  private static final int MAX_DAYS = 366;
+  private static final int DEFAULT_DAYS = 30;
+
+  private final SalesRollupRepository salesRollupRepository;
+  private final SalesRollupJob salesRollupJob;
+
+  public SalesAnalyticsService(SalesRollupRepository salesRollupRepository, SalesRollupJob salesRollupJob) {
+    this.salesRollupRepository = salesRollupRepository;
+    this.salesRollupJob = salesRollupJob;
+  }
+
+  @Transactional(readOnly = true)
+  public List<ProductSalesDTO> findTopProducts(int limit) {
+    return salesRollupRepository.findTopProducts(validLimit(limit));
+  }
+
+  @Transactional(readOnly = true)
+  public List<CategorySalesDTO> findTopCategories(int limit) {
+    return salesRollupRepository.findTopCategories(validLimit(limit));
+  }
+
+  // Dias em UTC (o moment dos pedidos é gravado em UTC); sem período, os últimos 30 dias
+  @Transactional(readOnly = true)
+  public List<DailySalesDTO> findDays(LocalDate from, LocalDate to) {
+    LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+    LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+    if (start.isAfter(end)) {
+      throw new BadRequestException("from must not be after to");
+    }
+    if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+      throw new BadRequestException("Period must not exceed " + MAX_DAYS + " days");
+    }
+    return salesRollupRepository.findDays(start, end);
+  }
+
+  public void rebuild() {
+    salesRollupJob.rebuild();
+  }
+
+  private static int validLimit(int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+    }
+    return limit;
+  }
+}
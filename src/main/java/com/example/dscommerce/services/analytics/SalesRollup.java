@@ -0,0 +1,43 @@
+package com.example.dscommerce.services.analytics;
+
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.entities.SalesDelta;
+import com.example.dscommerce.repositories.SalesDeltaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Registra em tb_sales_delta o efeito de cada pedido nos rollups de vendas. Só pode ser chamado
+ * dentro da transação que altera o pedido; SalesRollupJob aplica os deltas depois, em lote.
+ *
+ * "placed" conta pedidos feitos e não cancelados; "paid" conta os pagos (PAID, SHIPPED, DELIVERED)
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class SalesRollup {
+
+  private final SalesDeltaRepository salesDeltaRepository;
+
+  public SalesRollup(SalesDeltaRepository salesDeltaRepository) {
+    this.salesDeltaRepository = salesDeltaRepository;
+  }
+
+  public void ordersPlaced(Collection<Long> orderIds) {
+    salesDeltaRepository.saveAll(orderIds.stream().map(id -> new SalesDelta(id, 1, 0)).toList());
+  }
+
+  public void statusChanged(Long orderId, OrderStatus from, OrderStatus to) {
+    int placed = weight(to.isPlaced()) - weight(from.isPlaced());
+    int paid = weight(to.isPaid()) - weight(from.isPaid());
+    if (placed != 0 || paid != 0) {
+      salesDeltaRepository.save(new SalesDelta(orderId, placed, paid));
+    }
+  }
+
+  private static int weight(boolean counted) {
+    return counted ? 1 : 0;
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.dscommerce.services.analytics;
+
+import com.example.dscommerce.entities.SalesRollupLock;
+import com.example.dscommerce.repositories.SalesRollupLockRepository;
+import com.example.dscommerce.repositories.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Aplica os deltas de tb_sales_delta nos rollups de vendas, em lotes na ordem dos ids.
+ *
+ * Os pedidos nunca atualizam os rollups diretamente: um produto ou dia muito vendido viraria uma
+ * linha disputada por todos os checkouts. Aqui cada lote vira um UPDATE por chave tocada.
+ * A reconstrução completa (rebuild) recalcula tudo a partir de tb_order e corrige qualquer desvio.
+ *
+ * Fold, rebuild e backfill começam travando a linha de tb_sales_rollup_lock, o que os serializa na
+ * instância e entre réplicas. O rebuild roda em outra transação (REPEATABLE READ), aberta só depois
+ * da trava: o snapshot já enxerga o que a réplica anterior gravou
+ */
+@Component
+public class SalesRollupJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(SalesRollupJob.class);
+
+  private final SalesRollupRepository salesRollupRepository;
+  private final SalesRollupLockRepository salesRollupLockRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate rebuildTemplate;
+
+  @Value("${analytics.rollup.batch-size:500}")
+  private int batchSize;
+
+  public SalesRollupJob(SalesRollupRepository salesRollupRepository, SalesRollupLockRepository salesRollupLockRepository,
+                        PlatformTransactionManager transactionManager) {
+    this.salesRollupRepository = salesRollupRepository;
+    this.salesRollupLockRepository = salesRollupLockRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.rebuildTemplate = new TransactionTemplate(transactionManager);
+    this.rebuildTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  @Scheduled(fixedDelayString = "${analytics.rollup.interval:5s}")
+  public void foldPending() {
+    int folded;
+    do {
+      folded = fold();
+    } while (folded == batchSize);
+  }
+
+  /**
+   * Aplica um lote de deltas e retorna quantos foram aplicados
+   */
+  public int fold() {
+    Integer folded = transactionTemplate.execute(status -> {
+      lockRollups();
+      List<Long> ids = salesRollupRepository.lockDeltaIds(batchSize);
+      if (!ids.isEmpty()) {
+        salesRollupRepository.applyDeltas(ids);
+      }
+      return ids.size();
+    });
+    return folded == null ? 0 : folded;
+  }
+
+  @Scheduled(cron = "${analytics.rollup.rebuild-cron:-}")
+  public void rebuild() {
+    transactionTemplate.executeWithoutResult(status -> {
+      lockRollups();
+      rebuildTemplate.executeWithoutResult(rebuild -> salesRollupRepository.rebuild());
+    });
+  }
+
+  // Primeira subida com a feature (ou banco recriado): os pedidos existentes não têm deltas.
+  // Uma falha aqui não derruba a aplicação; os rollups ficam vazios até POST /analytics/rebuild
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        lockRollups();
+        // Confere de novo com a trava: outra réplica pode ter reconstruído enquanto esta esperava
+        if (salesRollupRepository.isEmpty()) {
+          logger.info("Sales rollups are empty, rebuilding from tb_order");
+          rebuildTemplate.executeWithoutResult(rebuild -> salesRollupRepository.rebuild());
+        }
+      });
+    } catch (RuntimeException e) {
+      logger.error("Sales rollup backfill failed, rollups stay empty until the next rebuild", e);
+    }
+  }
+
+  private void lockRollups() {
+    salesRollupLockRepository.lock(SalesRollupLock.ID)
+      .orElseThrow(() -> new IllegalStateException("tb_sales_rollup_lock has no row with id " + SalesRollupLock.ID));
+  }
+}
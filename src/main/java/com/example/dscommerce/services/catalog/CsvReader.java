@@ -0,0 +1,74 @@
+package com.example.dscommerce.services.catalog;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV (RFC 4180) registro a registro, sem carregar o arquivo: vírgula como separador,
+ * campos entre aspas podem conter vírgulas, quebras de linha e aspas duplicadas ("")
+ */
+class CsvReader {
+
+  private static final int BOM = '\uFEFF';
+
+  private final Reader reader;
+  private int next = -2;
+
+  CsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Próximo registro, ou null no fim do arquivo. Linhas vazias são ignoradas
+   */
+  List<String> read() throws IOException {
+    if (next == -2) {
+      next = reader.read();
+      if (next == BOM) {
+        next = reader.read();
+      }
+    }
+    while (next == '\r' || next == '\n') {
+      next = reader.read();
+    }
+    if (next == -1) {
+      return null;
+    }
+
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    while (true) {
+      int c = next;
+      next = reader.read();
+      if (quoted) {
+        if (c == -1) {
+          throw new IOException("Unterminated quoted field");
+        }
+        if (c == '"' && next == '"') {
+          field.append('"');
+          next = reader.read();
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.isEmpty()) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\r' || c == '\n' || c == -1) {
+        fields.add(field.toString());
+        if (c == '\r' && next == '\n') {
+          next = reader.read();
+        }
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+    }
+  }
+}
@@ -0,0 +1,353 @@
+package com.example.dscommerce.services.catalog;
+
+import com.example.dscommerce.dto.CategoryDTO;
+import com.example.dscommerce.dto.ImportErrorDTO;
+import com.example.dscommerce.dto.ImportReportDTO;
+import com.example.dscommerce.dto.ProductDTO;
+import com.example.dscommerce.entities.Category;
+import com.example.dscommerce.repositories.CategoryRepository;
+import com.example.dscommerce.repositories.ProductBatchRepository;
+import com.example.dscommerce.services.ProductService;
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em lote do catálogo (CSV ou NDJSON), lida em streaming: só um chunk de
+ * product.import.batch-size linhas fica em memória. Cada chunk é gravado em uma transação própria
+ * com batches JDBC (ProductBatchRepository); linhas com id atualizam o produto, sem id inserem.
+ *
+ * As categorias são carregadas uma vez por importação, em vez de um findById por categoria de cada
+ * produto. Linhas inválidas entram no relatório sem interromper a importação; se um chunk falhar
+ * (recusado pelo banco ou qualquer outra exceção), ele é regravado linha a linha para apontar apenas
+ * as linhas com problema
+ */
+@Service
+public class ProductImportService {
+
+  private static final List<String> CSV_COLUMNS = List.of("id", "name", "description", "price", "imgUrl", "stock", "categories");
+  private static final List<String> CSV_REQUIRED = List.of("name", "description", "price", "categories");
+  private static final String CATEGORY_SEPARATOR = "\\|";
+
+  private final ProductBatchRepository productBatchRepository;
+  private final CategoryRepository categoryRepository;
+  private final ProductService productService;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${product.import.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${product.import.max-errors:1000}")
+  private int maxErrors;
+
+  public ProductImportService(ProductBatchRepository productBatchRepository, CategoryRepository categoryRepository,
+                              ProductService productService, Validator validator, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+    this.productBatchRepository = productBatchRepository;
+    this.categoryRepository = categoryRepository;
+    this.productService = productService;
+    this.validator = validator;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * CSV em UTF-8 com cabeçalho (id, name, description, price, imgUrl, stock, categories, em qualquer
+   * ordem; id, imgUrl e stock são opcionais). categories traz os ids separados por "|"
+   */
+  public ImportReportDTO importCsv(InputStream input) throws IOException {
+    CsvReader csv = new CsvReader(reader(input));
+    List<String> header = csv.read();
+    Map<String, Integer> columns = csvColumns(header);
+    return importRows(() -> {
+      List<String> record = csv.read();
+      return record == null ? null : fromCsv(record, columns, header.size());
+    });
+  }
+
+  /**
+   * Um ProductDTO em JSON por linha, em UTF-8 (linhas em branco são ignoradas)
+   */
+  public ImportReportDTO importNdjson(InputStream input) {
+    BufferedReader lines = reader(input);
+    return importRows(() -> {
+      String line;
+      do {
+        line = lines.readLine();
+      } while (line != null && line.isBlank());
+      return line == null ? null : fromJson(line);
+    });
+  }
+
+  private ImportReportDTO importRows(RowSource source) {
+    Set<Long> categoryIds = categoryRepository.findAll().stream().map(Category::getId).collect(Collectors.toSet());
+    Report report = new Report(maxErrors);
+    List<Row> chunk = new ArrayList<>(batchSize);
+
+    while (true) {
+      long number = report.rows + 1;
+      ProductDTO product;
+      try {
+        product = source.next();
+      } catch (IllegalArgumentException e) {
+        report.rows++;
+        report.fail(number, null, e.getMessage());
+        continue;
+      } catch (IOException e) {
+        // CSV malformado (aspas sem fechamento) ou conexão interrompida: nada depois disso é confiável
+        report.fail(number, null, "Malformed file: " + e.getMessage());
+        break;
+      }
+      if (product == null) {
+        break;
+      }
+
+      report.rows++;
+      String error = validate(product, categoryIds);
+      if (error != null) {
+        report.fail(number, product.getId(), error);
+        continue;
+      }
+      chunk.add(new Row(number, product));
+      if (chunk.size() == batchSize) {
+        write(chunk, report);
+        chunk.clear();
+      }
+    }
+    write(chunk, report);
+    return report.toDTO();
+  }
+
+  private void write(List<Row> chunk, Report report) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    try {
+      report.add(transactionTemplate.execute(status -> save(chunk)));
+    } catch (RuntimeException e) {
+      // Não só DataAccessException: um erro inesperado em uma linha também vai para o relatório
+      if (chunk.size() == 1) {
+        Row row = chunk.getFirst();
+        report.fail(row.number, row.product.getId(),
+          "Could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        return;
+      }
+      for (Row row : chunk) {
+        write(List.of(row), report);
+      }
+    }
+  }
+
+  private Result save(List<Row> chunk) {
+    List<ProductDTO> inserts = new ArrayList<>();
+    // a última linha de cada id prevalece, como se as linhas fossem gravadas uma a uma
+    Map<Long, ProductDTO> updates = new LinkedHashMap<>();
+    for (Row row : chunk) {
+      if (row.product.getId() == null) {
+        inserts.add(row.product);
+      } else {
+        updates.put(row.product.getId(), row.product);
+      }
+    }
+
+    Result result = new Result();
+    Set<Long> existing = productBatchRepository.findExistingIds(updates.keySet());
+    for (Row row : chunk) {
+      Long id = row.product.getId();
+      if (id != null && !existing.contains(id)) {
+        result.errors.add(new ImportErrorDTO(row.number, id, "Product not found"));
+      } else if (id != null) {
+        result.updated++;
+      }
+    }
+    updates.keySet().retainAll(existing);
+
+    List<Long> ids = new ArrayList<>(productBatchRepository.insertAll(inserts));
+    result.inserted = ids.size();
+    List<ProductDTO> products = new ArrayList<>(inserts);
+    productBatchRepository.updateAll(List.copyOf(updates.values()));
+    ids.addAll(updates.keySet());
+    products.addAll(updates.values());
+    productBatchRepository.replaceCategories(ids, products);
+
+    Map<Long, String> names = new HashMap<>();
+    List<Long> stockChanged = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i++) {
+      names.put(ids.get(i), products.get(i).getName());
+      if (products.get(i).getStock() != null) {
+        stockChanged.add(ids.get(i));
+      }
+    }
+    productService.importedAfterCommit(names, stockChanged);
+    return result;
+  }
+
+  // Mesmas regras do cadastro (anotações de ProductDTO), com as categorias do mapa pré-carregado
+  private String validate(ProductDTO product, Set<Long> categoryIds) {
+    List<String> errors = validator.validate(product).stream()
+      .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+      .sorted()
+      .collect(Collectors.toCollection(ArrayList::new));
+    // "categories": null no NDJSON já é recusado pelo @NotEmpty
+    if (product.getCategories() != null) {
+      for (CategoryDTO category : product.getCategories()) {
+        if (category == null || !categoryIds.contains(category.getId())) {
+          errors.add("Category not found with ID: " + (category == null ? null : category.getId()));
+        }
+      }
+    }
+    return errors.isEmpty() ? null : String.join("; ", errors);
+  }
+
+  private static Map<String, Integer> csvColumns(List<String> header) {
+    if (header == null) {
+      throw new BadRequestException("Empty file");
+    }
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      String column = header.get(i).trim();
+      if (!CSV_COLUMNS.contains(column)) {
+        throw new BadRequestException("Unknown column: " + column);
+      }
+      columns.put(column, i);
+    }
+    for (String column : CSV_REQUIRED) {
+      if (!columns.containsKey(column)) {
+        throw new BadRequestException("Missing column: " + column);
+      }
+    }
+    return columns;
+  }
+
+  // Erros de conversão viram IllegalArgumentException: a linha é recusada e a leitura continua
+  private static ProductDTO fromCsv(List<String> record, Map<String, Integer> columns, int expected) {
+    if (record.size() != expected) {
+      throw new IllegalArgumentException("Expected " + expected + " columns, found " + record.size());
+    }
+
+    ProductDTO product = new ProductDTO(
+      parse(field(record, columns, "id"), "id", Long::valueOf),
+      field(record, columns, "name"),
+      field(record, columns, "description"),
+      parse(field(record, columns, "price"), "price", BigDecimal::new),
+      field(record, columns, "imgUrl"),
+      parse(field(record, columns, "stock"), "stock", Integer::valueOf));
+
+    String categories = field(record, columns, "categories");
+    if (categories != null) {
+      for (String id : categories.split(CATEGORY_SEPARATOR)) {
+        product.getCategories().add(new CategoryDTO(parse(id.trim(), "categories", Long::valueOf), null));
+      }
+    }
+    return product;
+  }
+
+  private ProductDTO fromJson(String line) {
+    try {
+      return objectMapper.readValue(line, ProductDTO.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+    }
+  }
+
+  // Campo ausente ou em branco = null
+  private static String field(List<String> record, Map<String, Integer> columns, String column) {
+    Integer index = columns.get(column);
+    if (index == null || !StringUtils.hasText(record.get(index))) {
+      return null;
+    }
+    return record.get(index).trim();
+  }
+
+  private static <T> T parse(String value, String column, Function<String, T> parser) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return parser.apply(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(column + ": invalid number '" + value + "'");
+    }
+  }
+
+  private static BufferedReader reader(InputStream input) {
+    return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+  }
+
+  @FunctionalInterface
+  private interface RowSource {
+    ProductDTO next() throws IOException;
+  }
+
+  private static final class Row {
+    private final long number;
+    private final ProductDTO product;
+
+    private Row(long number, ProductDTO product) {
+      this.number = number;
+      this.product = product;
+    }
+  }
+
+  private static final class Result {
+    private long inserted;
+    private long updated;
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+  }
+
+  private static final class Report {
+    private final int maxErrors;
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+
+    private Report(int maxErrors) {
+      this.maxErrors = maxErrors;
+    }
+
+    private void add(Result result) {
+      inserted += result.inserted;
+      updated += result.updated;
+      result.errors.forEach(error -> fail(error.getRow(), error.getId(), error.getMessage()));
+    }
+
+    private void fail(long row, Long id, String message) {
+      failed++;
+      if (errors.size() < maxErrors) {
+        errors.add(new ImportErrorDTO(row, id, message));
+      }
+    }
+
+    private ImportReportDTO toDTO() {
+      errors.sort(Comparator.comparingLong(ImportErrorDTO::getRow));
+      return new ImportReportDTO(rows, inserted, updated, failed, errors);
+    }
+  }
+}
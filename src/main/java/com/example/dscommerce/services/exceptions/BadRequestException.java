@@ -0,0 +1,8 @@
+package com.example.dscommerce.services.exceptions;
+
+public class BadRequestException extends RuntimeException {
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.example.dscommerce.services.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+
+  public InsufficientStockException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.dscommerce.services.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Apaga de tb_idempotency_key, em lotes, as chaves mais antigas que idempotency.key-ttl
+ */
+@Component
+public class IdempotencyKeyPurgeJob {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final String DELETE_EXPIRED_BATCH = """
+    DELETE FROM tb_idempotency_key WHERE id IN (
+      SELECT id FROM tb_idempotency_key WHERE created_at < ? LIMIT ?
+    )
+    """;
+
+  private final JdbcOperations jdbcOperations;
+
+  @Value("${idempotency.key-ttl:24h}")
+  private Duration keyTtl;
+
+  public IdempotencyKeyPurgeJob(JdbcOperations jdbcOperations) {
+    this.jdbcOperations = jdbcOperations;
+  }
+
+  @Scheduled(fixedDelayString = "${idempotency.purge-interval:1h}")
+  public void purgeExpired() {
+    Timestamp oldest = Timestamp.from(Instant.now().minus(keyTtl));
+    int deleted;
+    do {
+      deleted = jdbcOperations.update(DELETE_EXPIRED_BATCH, oldest, BATCH_SIZE);
+    } while (deleted == BATCH_SIZE);
+  }
+}
@@ -0,0 +1,180 @@
+package com.example.dscommerce.services.idempotency;
+
+import com.example.dscommerce.config.CacheConfig;
+import com.example.dscommerce.entities.IdempotencyKey;
+import com.example.dscommerce.repositories.IdempotencyKeyRepository;
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import com.example.dscommerce.services.exceptions.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Execução única por Idempotency-Key.
+ *
+ * - a primeira resposta fica no cache local (retentativas não abrem transação nem consultam o banco)
+ * - tb_idempotency_key guarda a chave e o id do recurso criado, gravados na mesma transação do
+ *   recurso; vale entre réplicas e reinícios, e a resposta é remontada a partir do id
+ * - requisições duplicadas simultâneas na mesma instância esperam a primeira terminar
+ * - chaves expiram após idempotency.key-ttl (IdempotencyKeyPurgeJob apaga as linhas antigas)
+ */
+@Service
+public class IdempotencyService {
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyKeyRepository repository;
+  private final Cache responses;
+  private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+  @Value("${idempotency.key-ttl:24h}")
+  private Duration keyTtl;
+
+  @Value("${idempotency.in-flight-timeout:10s}")
+  private Duration inFlightTimeout;
+
+  public IdempotencyService(IdempotencyKeyRepository repository, CacheManager cacheManager) {
+    this.repository = repository;
+    this.responses = cacheManager.getCache(CacheConfig.IDEMPOTENT_RESPONSES);
+  }
+
+  /**
+   * Executa a ação uma única vez por chave e devolve a mesma resposta nas retentativas.
+   *
+   * @param key chave já com o escopo do cliente
+   * @param requestHash hash do corpo (ver hash)
+   * @param action cria o recurso; deve chamar claim() na mesma transação e terminar com o commit
+   * @param replay remonta a resposta a partir do id do recurso gravado
+   */
+  public <T> T execute(String key, String requestHash, Supplier<T> action, Function<Long, T> replay) {
+    while (true) {
+      Optional<T> stored = lookup(key, requestHash, replay);
+      if (stored.isPresent()) {
+        return stored.get();
+      }
+
+      CompletableFuture<Void> mine = new CompletableFuture<>();
+      CompletableFuture<Void> running = inFlight.putIfAbsent(key, mine);
+      if (running != null) {
+        // outra requisição com a mesma chave está em andamento: espera e tenta o replay de novo
+        await(running);
+        continue;
+      }
+
+      try {
+        T response = action.get();
+        responses.put(key, new StoredResponse(requestHash, response));
+        return response;
+      } catch (DataIntegrityViolationException e) {
+        // outra réplica gravou a mesma chave primeiro
+        return lookup(key, requestHash, replay).orElseThrow(() -> e);
+      } finally {
+        inFlight.remove(key, mine);
+        mine.complete(null);
+      }
+    }
+  }
+
+  /**
+   * Grava a chave na transação corrente; o chamador preenche o id do recurso antes do commit.
+   * Uma linha expirada que o purge ainda não apagou é removida antes, e a chave volta a valer
+   */
+  public IdempotencyKey claim(String key, String requestHash) {
+    repository.deleteExpired(key, Instant.now().minus(keyTtl));
+    return repository.saveAndFlush(new IdempotencyKey(key, requestHash, Instant.now()));
+  }
+
+  /**
+   * Libera a chave quando a operação não chegou a ser aceita depois do claim
+   */
+  public void release(String key) {
+    repository.deleteById(key);
+  }
+
+  public static String validate(String idempotencyKey) {
+    if (!StringUtils.hasText(idempotencyKey) || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new BadRequestException("Invalid Idempotency-Key");
+    }
+    return idempotencyKey;
+  }
+
+  /**
+   * SHA-256 (hex) da representação canônica do corpo da requisição
+   */
+  public static String hash(String canonicalRequest) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Optional<T> lookup(String key, String requestHash, Function<Long, T> replay) {
+    StoredResponse cached = responses.get(key, StoredResponse.class);
+    if (cached != null) {
+      checkHash(cached.requestHash, requestHash);
+      return Optional.of((T) cached.body);
+    }
+
+    Instant oldest = Instant.now().minus(keyTtl);
+    return repository.findById(key)
+      .filter(row -> row.getCreatedAt().isAfter(oldest) && row.getResourceId() != null)
+      .map(row -> {
+        checkHash(row.getRequestHash(), requestHash);
+        T body = replay.apply(row.getResourceId());
+        responses.put(key, new StoredResponse(requestHash, body));
+        return body;
+      });
+  }
+
+  private static void checkHash(String stored, String received) {
+    if (!stored.equals(received)) {
+      throw new BadRequestException("Idempotency-Key already used with a different request");
+    }
+  }
+
+  private void await(CompletableFuture<Void> running) {
+    try {
+      running.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new ConflictException("A request with this Idempotency-Key is still in progress");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConflictException("A request with this Idempotency-Key is still in progress");
+    } catch (ExecutionException e) {
+      // a primeira requisição falhou: esta tenta de novo
+    }
+  }
+
+  private static final class StoredResponse {
+
+    private final String requestHash;
+    private final Object body;
+
+    private StoredResponse(String requestHash, Object body) {
+      this.requestHash = requestHash;
+      this.body = body;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.entities.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Acrescenta cada lote ao arquivo outbox.publisher.file, um evento JSON por linha (NDJSON),
+ * com fsync antes de o relay apagar os eventos do banco
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "file")
+public class FileOutboxPublisher implements OutboxPublisher {
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+  // ReentrantLock em vez de synchronized: não prende a carrier thread durante o fsync
+  private final ReentrantLock lock = new ReentrantLock();
+
+  public FileOutboxPublisher(@Value("${outbox.publisher.file:outbox-events.ndjson}") Path file, ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void publish(List<OutboxEvent> events) {
+    StringBuilder lines = new StringBuilder();
+    for (OutboxEvent event : events) {
+      lines.append(toJson(event)).append('\n');
+    }
+
+    lock.lock();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.APPEND)) {
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private String toJson(OutboxEvent event) {
+    try {
+      Map<String, Object> line = new LinkedHashMap<>();
+      line.put("id", event.getId());
+      line.put("type", event.getType());
+      line.put("aggregateId", event.getAggregateId());
+      line.put("createdAt", event.getCreatedAt());
+      line.put("payload", objectMapper.readTree(event.getPayload()));
+      return objectMapper.writeValueAsString(line);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.entities.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Guarda os últimos eventos publicados em memória (uso local e testes)
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "memory")
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+  private static final int MAX_EVENTS = 10_000;
+
+  private final Deque<OutboxEvent> events = new ArrayDeque<>();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @Override
+  public void publish(List<OutboxEvent> published) {
+    lock.lock();
+    try {
+      for (OutboxEvent event : published) {
+        if (events.size() == MAX_EVENTS) {
+          events.removeFirst();
+        }
+        events.addLast(event);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public List<OutboxEvent> published() {
+    lock.lock();
+    try {
+      return List.copyOf(events);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
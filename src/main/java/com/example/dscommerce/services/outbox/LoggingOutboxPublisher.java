@@ -0,0 +1,23 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.entities.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoggingOutboxPublisher.class);
+
+  @Override
+  public void publish(List<OutboxEvent> events) {
+    for (OutboxEvent event : events) {
+      logger.info("{} #{} order {}: {}", event.getType(), event.getId(), event.getAggregateId(), event.getPayload());
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.entities.Order;
+import com.example.dscommerce.entities.OrderItem;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.entities.OutboxEvent;
+import com.example.dscommerce.repositories.OutboxEventRepository;
+import com.example.dscommerce.services.placement.PendingOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eventos do ciclo de vida dos pedidos gravados em tb_outbox_event. Só pode ser chamado dentro da
+ * transação que altera o pedido: o evento existe se, e somente se, a mudança foi confirmada
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderEventOutbox {
+
+  public static final String ORDER_CREATED = "ORDER_CREATED";
+  public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
+
+  public OrderEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  public void orderCreated(Order order) {
+    List<Map<String, Object>> items = new ArrayList<>();
+    for (OrderItem item : order.getItems()) {
+      items.add(item(item.getProduct().getId(), item.getQuantity(), item.getPrice().toBigDecimal()));
+    }
+    created(order.getId(), order.getClient().getId(), order.getStatus(), order.getMoment(), items);
+  }
+
+  public void orderCreated(PendingOrder order) {
+    List<Map<String, Object>> items = new ArrayList<>();
+    for (PendingOrder.Item item : order.getItems()) {
+      items.add(item(item.getProductId(), item.getQuantity(), item.getPrice().toBigDecimal()));
+    }
+    created(order.getId(), order.getClientId(), order.getStatus(), order.getMoment(), items);
+  }
+
+  public void statusChanged(Long orderId, OrderStatus from, OrderStatus to) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("orderId", orderId);
+    payload.put("from", from);
+    payload.put("to", to);
+    save(orderId, ORDER_STATUS_CHANGED, payload);
+  }
+
+  private void created(Long orderId, Long clientId, OrderStatus status, Instant moment, List<Map<String, Object>> items) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("orderId", orderId);
+    payload.put("clientId", clientId);
+    payload.put("status", status);
+    payload.put("moment", moment);
+    payload.put("items", items);
+    save(orderId, ORDER_CREATED, payload);
+  }
+
+  private void save(Long orderId, String type, Map<String, Object> payload) {
+    try {
+      String json = objectMapper.writeValueAsString(payload);
+      outboxEventRepository.save(new OutboxEvent(null, orderId, type, json, Instant.now()));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Map<String, Object> item(Long productId, Integer quantity, BigDecimal price) {
+    Map<String, Object> item = new LinkedHashMap<>();
+    item.put("productId", productId);
+    item.put("quantity", quantity);
+    item.put("price", price);
+    return item;
+  }
+}
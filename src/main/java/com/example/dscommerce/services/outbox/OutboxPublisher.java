@@ -0,0 +1,15 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.entities.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos do outbox (outbox.publisher). Recebe os eventos em ordem de id; se lançar
+ * exceção o lote inteiro continua no outbox e é reenviado, então a entrega é "pelo menos uma vez"
+ * e o consumidor deve ignorar ids de evento já processados
+ */
+public interface OutboxPublisher {
+
+  void publish(List<OutboxEvent> events);
+}
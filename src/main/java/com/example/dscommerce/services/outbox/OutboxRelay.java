@@ -0,0 +1,103 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.entities.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Publica os eventos de tb_outbox_event em lotes, na ordem dos ids, e os apaga na mesma transação.
+ *
+ * A leitura usa a chave primária (ORDER BY id LIMIT) com FOR UPDATE: um segundo relay (outra réplica)
+ * espera o lote corrente terminar em vez de pular linhas, o que manteria a ordem por pedido só
+ * dentro de cada réplica. Métricas: outbox.events.published, outbox.events.lag e outbox.relay.batch
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+  private static final String SELECT_BATCH = """
+    SELECT id, aggregate_id, type, payload, created_at FROM tb_outbox_event
+    ORDER BY id
+    LIMIT ?
+    FOR UPDATE
+    """;
+
+  // created_at é gravado em UTC pelo Hibernate
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final OutboxPublisher publisher;
+  private final TransactionTemplate transactionTemplate;
+  private final Counter published;
+  private final Timer lag;
+  private final Timer batchDuration;
+
+  @Value("${outbox.relay.batch-size:500}")
+  private int batchSize;
+
+  public OutboxRelay(JdbcTemplate jdbcTemplate, OutboxPublisher publisher,
+                     PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.publisher = publisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.published = meterRegistry.counter("outbox.events.published");
+    this.lag = meterRegistry.timer("outbox.events.lag");
+    this.batchDuration = meterRegistry.timer("outbox.relay.batch");
+  }
+
+  @Scheduled(fixedDelayString = "${outbox.relay.interval:500ms}")
+  public void relayPending() {
+    int relayed;
+    do {
+      relayed = relay();
+    } while (relayed == batchSize);
+  }
+
+  /**
+   * Publica um lote e retorna quantos eventos foram publicados
+   */
+  public int relay() {
+    return batchDuration.record(() -> {
+      Integer relayed = transactionTemplate.execute(status -> {
+        List<OutboxEvent> events = jdbcTemplate.query(SELECT_BATCH, eventMapper(), batchSize);
+        if (events.isEmpty()) {
+          return 0;
+        }
+        publisher.publish(events);
+        Instant now = Instant.now();
+        published.increment(events.size());
+        events.forEach(event -> lag.record(Duration.between(event.getCreatedAt(), now)));
+        jdbcTemplate.update("DELETE FROM tb_outbox_event WHERE id IN ("
+          + String.join(", ", Collections.nCopies(events.size(), "?")) + ")",
+          events.stream().map(OutboxEvent::getId).toArray());
+        return events.size();
+      });
+      return relayed == null ? 0 : relayed;
+    });
+  }
+
+  private RowMapper<OutboxEvent> eventMapper() {
+    return (rs, rowNum) -> {
+      Timestamp createdAt = rs.getTimestamp("created_at", Calendar.getInstance(UTC));
+      return new OutboxEvent(rs.getLong("id"), rs.getLong("aggregate_id"), rs.getString("type"),
+        rs.getString("payload"), createdAt.toInstant());
+    };
+  }
+}
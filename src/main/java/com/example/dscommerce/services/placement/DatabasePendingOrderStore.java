@@ -0,0 +1,88 @@
+package com.example.dscommerce.services.placement;
+
+import com.example.dscommerce.entities.Money;
+import com.example.dscommerce.entities.PendingOrderEntry;
+import com.example.dscommerce.repositories.PendingOrderEntryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Pedidos pendentes em tb_pending_order: um INSERT por pedido aceito (sem locks de produto),
+ * e a remoção acontece na mesma transação que grava o pedido em tb_order.
+ * Cada linha registra a instância dona; em várias réplicas, uma instância só recupera linhas
+ * que conseguiu assumir, então um pedido em andamento em outra réplica não é gravado duas vezes
+ */
+@Component
+@ConditionalOnProperty(name = "orders.placement.store", havingValue = "database", matchIfMissing = true)
+public class DatabasePendingOrderStore implements PendingOrderStore {
+
+  private final PendingOrderEntryRepository repository;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  public DatabasePendingOrderStore(PendingOrderEntryRepository repository) {
+    this.repository = repository;
+  }
+
+  @Override
+  public void save(PendingOrder order) {
+    repository.save(new PendingOrderEntry(order.getId(), order.getClientId(), order.getClientName(),
+      order.getMoment(), encode(order.getItems()), instanceId, Instant.now()));
+  }
+
+  // Também chamado fora de transação, ao descartar um pedido que não entrou na fila
+  @Override
+  @Transactional
+  public void removeAll(Collection<Long> ids) {
+    repository.deleteByIds(ids);
+  }
+
+  @Override
+  public Optional<PendingOrder> find(Long id) {
+    return repository.findById(id).map(DatabasePendingOrderStore::toPendingOrder);
+  }
+
+  @Override
+  @Transactional
+  public List<PendingOrder> claimStale(Instant claimedBefore, int limit) {
+    Instant now = Instant.now();
+    List<PendingOrder> claimed = new ArrayList<>();
+    for (PendingOrderEntry entry : repository.findByOwnerNotAndClaimedAtBeforeOrderByIdAsc(instanceId, claimedBefore,
+      Limit.of(limit))) {
+      if (repository.claim(entry.getId(), entry.getOwner(), instanceId, now) == 1) {
+        claimed.add(toPendingOrder(entry));
+      }
+    }
+    return claimed;
+  }
+
+  private static PendingOrder toPendingOrder(PendingOrderEntry entry) {
+    return new PendingOrder(entry.getId(), entry.getClientId(), entry.getClientName(), entry.getMoment(),
+      decode(entry.getItems()));
+  }
+
+  private static String encode(List<PendingOrder.Item> items) {
+    return items.stream()
+      .map(item -> item.getProductId() + ":" + item.getQuantity() + ":" + item.getPrice().toBigDecimal().toPlainString())
+      .collect(Collectors.joining(";"));
+  }
+
+  private static List<PendingOrder.Item> decode(String items) {
+    List<PendingOrder.Item> result = new ArrayList<>();
+    for (String item : items.split(";")) {
+      String[] fields = item.split(":");
+      result.add(new PendingOrder.Item(Long.valueOf(fields[0]), Integer.valueOf(fields[1]), Money.of(new BigDecimal(fields[2]))));
+    }
+    return result;
+  }
+}
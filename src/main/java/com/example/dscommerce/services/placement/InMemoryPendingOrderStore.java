@@ -0,0 +1,51 @@
+package com.example.dscommerce.services.placement;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "orders.placement.store", havingValue = "memory")
+public class InMemoryPendingOrderStore implements PendingOrderStore {
+
+  private final Map<Long, PendingOrder> orders = new ConcurrentHashMap<>();
+
+  @Override
+  public void save(PendingOrder order) {
+    orders.put(order.getId(), order);
+  }
+
+  // Só depois do commit: até lá GET /orders/{id} ainda não encontraria o pedido em tb_order
+  @Override
+  public void removeAll(Collection<Long> ids) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      ids.forEach(orders::remove);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        ids.forEach(orders::remove);
+      }
+    });
+  }
+
+  @Override
+  public Optional<PendingOrder> find(Long id) {
+    return Optional.ofNullable(orders.get(id));
+  }
+
+  // Nada sobrevive a um reinício, e os pedidos não são compartilhados entre instâncias
+  @Override
+  public List<PendingOrder> claimStale(Instant claimedBefore, int limit) {
+    return List.of();
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.dscommerce.services.placement;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ids de pedidos reservados antes da gravação em tb_order (o 202 já devolve o id definitivo).
+ * Mesmo esquema pooled-lo do Hibernate em Order.id: cada valor V da sequência tb_order_seq é dono
+ * de V .. V + 49, então os dois alocadores compartilham a sequência sem colisão
+ */
+@Component
+@ConditionalOnProperty(name = "orders.placement.mode", havingValue = "async")
+public class OrderIdAllocator {
+
+  // igual ao allocationSize de Order.id (e ao INCREMENT BY de tb_order_seq)
+  private static final int ALLOCATION_SIZE = 50;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String nextValueSql;
+  private final ReentrantLock lock = new ReentrantLock();
+  private long next;
+  private long limit;
+
+  public OrderIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+      .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString("tb_order_seq");
+  }
+
+  public Long next() {
+    lock.lock();
+    try {
+      if (next == limit) {
+        next = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+        limit = next + ALLOCATION_SIZE;
+      }
+      return next++;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
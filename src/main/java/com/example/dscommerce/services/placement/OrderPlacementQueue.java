@@ -0,0 +1,252 @@
+package com.example.dscommerce.services.placement;
+
+import com.example.dscommerce.services.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila limitada de pedidos aceitos (orders.placement.mode=async) e as threads que os gravam em lote.
+ *
+ * - submit() registra o pedido no PendingOrderStore e o enfileira; fila cheia = 503
+ * - cada worker junta até batch-size pedidos e grava todos em uma transação (PendingOrderWriter)
+ * - falha do banco (transitória ou não, como uma conexão perdida): o lote inteiro é tentado de novo
+ *   após retry-delay e continua no store enquanto isso;
+ *   falha do próprio pedido (restrição do banco, valor inválido): cada pedido é tentado sozinho,
+ *   para um pedido com problema não travar os demais, e o que falha sozinho é encerrado como CANCELED
+ * - pedidos parados no store há mais que recovery-after (queda antes da gravação, nesta ou em
+ *   outra réplica) são assumidos por uma thread própria e entram na fila conforme ela esvazia
+ */
+@Component
+@ConditionalOnProperty(name = "orders.placement.mode", havingValue = "async")
+public class OrderPlacementQueue {
+
+  private static final Logger logger = LoggerFactory.getLogger(OrderPlacementQueue.class);
+
+  private final PendingOrderStore pendingOrderStore;
+  private final PendingOrderWriter pendingOrderWriter;
+  private final OrderIdAllocator orderIdAllocator;
+  private final BlockingQueue<PendingOrder> queue;
+  private final List<Thread> workers = new ArrayList<>();
+  private Thread recovery;
+  private volatile boolean running = true;
+
+  @Value("${orders.placement.workers:2}")
+  private int workerCount;
+
+  @Value("${orders.placement.batch-size:50}")
+  private int batchSize;
+
+  @Value("${orders.placement.retry-delay:1s}")
+  private Duration retryDelay;
+
+  // bem acima do tempo normal entre aceitar e gravar: antes disso o pedido ainda é da instância que o aceitou
+  @Value("${orders.placement.recovery-after:2m}")
+  private Duration recoveryAfter;
+
+  @Value("${orders.placement.recovery-interval:30s}")
+  private Duration recoveryInterval;
+
+  public OrderPlacementQueue(PendingOrderStore pendingOrderStore, PendingOrderWriter pendingOrderWriter,
+                             OrderIdAllocator orderIdAllocator,
+                             @Value("${orders.placement.queue-capacity:10000}") int capacity) {
+    this.pendingOrderStore = pendingOrderStore;
+    this.pendingOrderWriter = pendingOrderWriter;
+    this.orderIdAllocator = orderIdAllocator;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+  }
+
+  @PostConstruct
+  public void start() {
+    for (int i = 0; i < workerCount; i++) {
+      workers.add(Thread.ofPlatform().name("order-writer-" + i).start(this::run));
+    }
+    recovery = Thread.ofPlatform().name("order-recovery").start(this::recover);
+  }
+
+  // Os workers terminam o lote corrente; o que ficar na fila continua no store (se durável)
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    recovery.interrupt();
+    recovery.join(5000);
+    for (Thread worker : workers) {
+      worker.join(retryDelay.toMillis() + 5000);
+    }
+  }
+
+  public Long nextOrderId() {
+    return orderIdAllocator.next();
+  }
+
+  public void submit(PendingOrder order) {
+    save(order);
+    if (!offer(order)) {
+      discard(order);
+      throw full();
+    }
+  }
+
+  /**
+   * Grava o pedido no store, na transação corrente quando o store é database: assim ele pode ser
+   * gravado junto com outra linha (a Idempotency-Key) e enfileirado com offer depois do commit
+   */
+  public void save(PendingOrder order) {
+    pendingOrderStore.save(order);
+  }
+
+  public boolean offer(PendingOrder order) {
+    return queue.offer(order);
+  }
+
+  // Pedido gravado com save que não chegou a ser aceito
+  public void discard(PendingOrder order) {
+    pendingOrderStore.removeAll(List.of(order.getId()));
+  }
+
+  public static ServiceUnavailableException full() {
+    return new ServiceUnavailableException("Too many orders being placed, try again shortly");
+  }
+
+  public Optional<PendingOrder> find(Long id) {
+    return pendingOrderStore.find(id);
+  }
+
+  private void run() {
+    List<PendingOrder> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        // o worker não pode morrer: com todos parados a fila enche e todo pedido recebe 503
+        logger.error("Order writer failed on {} orders, they stay in the pending store", batch.size(), e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  // Assume os pedidos parados em lotes e espera vaga na fila para cada um, sem descartar nenhum
+  private void recover() {
+    while (running) {
+      try {
+        if (recoverBatch() < batchSize) {
+          Thread.sleep(recoveryInterval.toMillis());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private int recoverBatch() throws InterruptedException {
+    List<PendingOrder> orders;
+    try {
+      orders = pendingOrderStore.claimStale(Instant.now().minus(recoveryAfter), batchSize);
+    } catch (RuntimeException e) {
+      logger.warn("Could not recover pending orders, retrying in {}", recoveryInterval, e);
+      return 0;
+    }
+    if (!orders.isEmpty()) {
+      logger.info("Recovered {} pending orders", orders.size());
+    }
+    for (PendingOrder order : orders) {
+      // assumidos e não enfileirados (parada no meio) voltam a ser recuperáveis após recovery-after
+      while (!queue.offer(order, 1, TimeUnit.SECONDS)) {
+        if (!running) {
+          return orders.size();
+        }
+      }
+    }
+    return orders.size();
+  }
+
+  private void write(List<PendingOrder> batch) throws InterruptedException {
+    while (running) {
+      try {
+        pendingOrderWriter.write(batch);
+        return;
+      } catch (RuntimeException e) {
+        if (!isOrderFault(e)) {
+          logger.warn("Could not place {} orders, retrying in {}: {}", batch.size(), retryDelay,
+            e.toString());
+          Thread.sleep(retryDelay.toMillis());
+          continue;
+        }
+        if (batch.size() > 1) {
+          for (PendingOrder order : batch) {
+            write(List.of(order));
+          }
+        } else if (e instanceof DuplicateKeyException) {
+          // outra réplica recuperou e gravou o mesmo pedido primeiro
+          logger.info("Order {} was already placed", batch.getFirst().getId());
+        } else {
+          cancel(batch.getFirst(), e);
+        }
+        return;
+      }
+    }
+  }
+
+  // Sem o encerramento o pedido ficaria PENDING para sempre e seria tentado a cada recuperação.
+  // Se nem o encerramento for gravado, o pedido continua no store: nunca some depois do 202
+  private void cancel(PendingOrder order, RuntimeException cause) throws InterruptedException {
+    logger.error("Could not place order {} with items {}, canceling it", order.getId(), describe(order), cause);
+    while (running) {
+      try {
+        pendingOrderWriter.cancel(order, "Order could not be placed");
+        return;
+      } catch (DuplicateKeyException e) {
+        logger.info("Order {} was already placed", order.getId());
+        return;
+      } catch (RuntimeException e) {
+        if (isOrderFault(e)) {
+          logger.error("Could not cancel order {}, leaving it in the pending store", order.getId(), e);
+          return;
+        }
+        logger.warn("Could not cancel order {}, retrying in {}: {}", order.getId(), retryDelay,
+          e.toString());
+        Thread.sleep(retryDelay.toMillis());
+      }
+    }
+  }
+
+  // Falhas ligadas ao conteúdo do pedido: restrição do banco, valor inválido ou overflow de Money.
+  // Qualquer outra (banco fora, conexão perdida no meio do comando) não é culpa do pedido
+  private static boolean isOrderFault(RuntimeException e) {
+    return e instanceof DataIntegrityViolationException || e instanceof ArithmeticException
+      || e instanceof IllegalArgumentException;
+  }
+
+  private static String describe(PendingOrder order) {
+    return order.getItems().stream()
+      .map(item -> item.getProductId() + "x" + item.getQuantity() + "@" + item.getPrice().toBigDecimal().toPlainString())
+      .toList()
+      .toString();
+  }
+}
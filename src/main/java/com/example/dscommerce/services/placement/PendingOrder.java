@@ -0,0 +1,119 @@
+package com.example.dscommerce.services.placement;
+
+import com.example.dscommerce.entities.Money;
+import com.example.dscommerce.entities.OrderStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Pedido aceito em orders.placement.mode=async e ainda não gravado em tb_order.
+ * O id já é definitivo (reservado da sequência de tb_order) e o preço de cada item é o do
+ * momento da aceitação; status e stockApplied são definidos pelo PendingOrderWriter
+ */
+public class PendingOrder {
+
+  private final Long id;
+  private final Long clientId;
+  private final String clientName;
+  private final Instant moment;
+  private final List<Item> items;
+
+  private OrderStatus status = OrderStatus.PENDING;
+  private String cancelReason;
+  private boolean stockApplied = true;
+
+  public PendingOrder(Long id, Long clientId, String clientName, Instant moment, List<Item> items) {
+    this.id = id;
+    this.clientId = clientId;
+    this.clientName = clientName;
+    this.moment = moment;
+    this.items = List.copyOf(items);
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getClientId() {
+    return clientId;
+  }
+
+  public String getClientName() {
+    return clientName;
+  }
+
+  public Instant getMoment() {
+    return moment;
+  }
+
+  public List<Item> getItems() {
+    return items;
+  }
+
+  public Money getTotal() {
+    long cents = 0;
+    for (Item item : items) {
+      cents = Math.addExact(cents, item.getPrice().centsTimes(item.getQuantity()));
+    }
+    return Money.ofCents(cents);
+  }
+
+  public int getItemCount() {
+    int count = 0;
+    for (Item item : items) {
+      count += item.getQuantity();
+    }
+    return count;
+  }
+
+  public OrderStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(OrderStatus status) {
+    this.status = status;
+  }
+
+  public String getCancelReason() {
+    return cancelReason;
+  }
+
+  public void cancel(String reason) {
+    this.status = OrderStatus.CANCELED;
+    this.cancelReason = reason;
+  }
+
+  public boolean isStockApplied() {
+    return stockApplied;
+  }
+
+  public void setStockApplied(boolean stockApplied) {
+    this.stockApplied = stockApplied;
+  }
+
+  public static final class Item {
+
+    private final Long productId;
+    private final Integer quantity;
+    private final Money price;
+
+    public Item(Long productId, Integer quantity, Money price) {
+      this.productId = productId;
+      this.quantity = quantity;
+      this.price = price;
+    }
+
+    public Long getProductId() {
+      return productId;
+    }
+
+    public Integer getQuantity() {
+      return quantity;
+    }
+
+    public Money getPrice() {
+      return price;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.dscommerce.services.placement;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Onde ficam os pedidos aceitos até o PendingOrderWriter gravá-los em tb_order
+ * (orders.placement.store): memory (perdidos em uma queda) ou database (tb_pending_order,
+ * recuperados por uma instância viva)
+ */
+public interface PendingOrderStore {
+
+  void save(PendingOrder order);
+
+  /**
+   * Remove os pedidos gravados; chamado na transação que os insere em tb_order
+   */
+  void removeAll(Collection<Long> ids);
+
+  Optional<PendingOrder> find(Long id);
+
+  /**
+   * Assume até limit pedidos de outras instâncias (ou de uma execução anterior desta) parados
+   * desde antes de claimedBefore; cada pedido é assumido por uma única instância
+   */
+  List<PendingOrder> claimStale(Instant claimedBefore, int limit);
+}
@@ -0,0 +1,126 @@
+package com.example.dscommerce.services.placement;
+
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.entities.Product;
+import com.example.dscommerce.repositories.OrderBatchRepository;
+import com.example.dscommerce.repositories.ProductRepository;
+import com.example.dscommerce.services.analytics.SalesRollup;
+import com.example.dscommerce.services.exceptions.InsufficientStockException;
+import com.example.dscommerce.services.outbox.OrderEventOutbox;
+import com.example.dscommerce.services.stock.StockReservation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grava um lote de pedidos pendentes em uma única transação: uma consulta para os produtos do
+ * lote, a reserva de estoque de cada pedido e dois INSERTs em batch (pedidos e itens).
+ * Pedido sem saldo (ou com produto removido nesse meio tempo) é gravado como CANCELED,
+ * sem derrubar o restante do lote
+ */
+@Component
+@ConditionalOnProperty(name = "orders.placement.mode", havingValue = "async")
+public class PendingOrderWriter {
+
+  private final ProductRepository productRepository;
+  private final OrderBatchRepository orderBatchRepository;
+  private final StockReservation stockReservation;
+  private final PendingOrderStore pendingOrderStore;
+  private final OrderEventOutbox orderEventOutbox;
+  private final SalesRollup salesRollup;
+
+  public PendingOrderWriter(ProductRepository productRepository, OrderBatchRepository orderBatchRepository,
+                            StockReservation stockReservation, PendingOrderStore pendingOrderStore,
+                            OrderEventOutbox orderEventOutbox, SalesRollup salesRollup) {
+    this.productRepository = productRepository;
+    this.orderBatchRepository = orderBatchRepository;
+    this.stockReservation = stockReservation;
+    this.pendingOrderStore = pendingOrderStore;
+    this.orderEventOutbox = orderEventOutbox;
+    this.salesRollup = salesRollup;
+  }
+
+  @Transactional
+  public void write(List<PendingOrder> batch) {
+    Set<Long> productIds = batch.stream()
+      .flatMap(order -> order.getItems().stream())
+      .map(PendingOrder.Item::getProductId)
+      .collect(Collectors.toSet());
+    Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+      .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<PendingOrder> orders = new ArrayList<>(batch.size());
+    for (PendingOrder order : batch) {
+      PendingOrder placed = withExistingItems(order, products);
+      if (placed.getItems().size() < order.getItems().size()) {
+        placed.cancel("Product no longer available");
+      } else {
+        reserveStock(placed, products);
+      }
+      orders.add(placed);
+    }
+
+    orderBatchRepository.insertAll(orders);
+    orders.forEach(orderEventOutbox::orderCreated);
+    salesRollup.ordersPlaced(orders.stream()
+      .filter(order -> order.getStatus() == OrderStatus.WAITING_PAYMENT)
+      .map(PendingOrder::getId)
+      .toList());
+    pendingOrderStore.removeAll(orders.stream().map(PendingOrder::getId).toList());
+  }
+
+  /**
+   * Encerra como CANCELED um pedido que não pôde ser gravado: só o cabeçalho vai para tb_order
+   * (sem itens nem reserva de estoque, que podem ser a causa da falha) e ele sai do store
+   */
+  @Transactional
+  public void cancel(PendingOrder order, String reason) {
+    PendingOrder canceled = new PendingOrder(order.getId(), order.getClientId(), order.getClientName(),
+      order.getMoment(), List.of());
+    canceled.cancel(reason);
+    orderBatchRepository.insertAll(List.of(canceled));
+    orderEventOutbox.orderCreated(canceled);
+    pendingOrderStore.removeAll(List.of(order.getId()));
+  }
+
+  // A reserva não deixa baixa parcial quando falta saldo, então o pedido pode ser só cancelado
+  private void reserveStock(PendingOrder order, Map<Long, Product> products) {
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    for (PendingOrder.Item item : order.getItems()) {
+      if (products.get(item.getProductId()).getStock() != null) {
+        quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+      }
+    }
+    order.setStatus(OrderStatus.WAITING_PAYMENT);
+    if (quantities.isEmpty()) {
+      return;
+    }
+
+    try {
+      stockReservation.reserve(quantities);
+      order.setStockApplied(!stockReservation.isDeferred());
+    } catch (InsufficientStockException e) {
+      order.cancel("Insufficient stock");
+    }
+  }
+
+  // Itens de produtos removidos depois da aceitação não podem ser gravados (FK)
+  private static PendingOrder withExistingItems(PendingOrder order, Map<Long, Product> products) {
+    List<PendingOrder.Item> items = order.getItems().stream()
+      .filter(item -> products.containsKey(item.getProductId()))
+      .toList();
+    if (items.size() == order.getItems().size()) {
+      return order;
+    }
+    return new PendingOrder(order.getId(), order.getClientId(), order.getClientName(), order.getMoment(), items);
+  }
+}
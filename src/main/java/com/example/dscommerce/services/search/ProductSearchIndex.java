@@ -0,0 +1,238 @@
+package com.example.dscommerce.services.search;
+
+import com.example.dscommerce.entities.Product;
+import com.example.dscommerce.projections.ProductNameProjection;
+import com.example.dscommerce.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido em memória (Lucene) sobre o nome dos produtos.
+ *
+ * Substitui o UPPER(name) LIKE '%x%' da busca do catálogo, que não usa índice B-tree:
+ * - tokenização + minúsculas + remoção de acentos ("eletrônico" encontra "eletronico")
+ * - cada termo digitado casa por prefixo ("gam" encontra "Gamer"); ao contrário do LIKE, trechos
+ *   do meio de uma palavra não casam ("book" não encontra "Macbook")
+ * - resultados ordenados por relevância (termos completos pesam mais que prefixos)
+ *
+ * O índice é reconstruído a partir de tb_product na inicialização e mantido pelo
+ * ProductService em insert/update/delete. Desligado com product.search.mode=like.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.mode", havingValue = "index", matchIfMissing = true)
+public class ProductSearchIndex {
+
+  private static final String ID = "id";
+  private static final String NAME = "name";
+  private static final float EXACT_TERM_BOOST = 2.0f;
+
+  private final ProductRepository productRepository;
+  private final Analyzer analyzer = new FoldingAnalyzer();
+  private final Directory directory = new ByteBuffersDirectory();
+  private IndexWriter writer;
+  private SearcherManager searcherManager;
+
+  public ProductSearchIndex(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  @PostConstruct
+  public void open() throws IOException {
+    writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+    searcherManager = new SearcherManager(writer, null);
+    rebuild();
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    searcherManager.close();
+    writer.close();
+    directory.close();
+  }
+
+  /**
+   * Recria o índice inteiro a partir do banco (apenas id e nome são lidos)
+   */
+  public void rebuild() {
+    try {
+      writer.deleteAll();
+      for (ProductNameProjection product : productRepository.searchAllNames()) {
+        writer.addDocument(toDocument(product.getId(), product.getName()));
+      }
+      refresh();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void index(Product product) {
+    try {
+      writer.updateDocument(idTerm(product.getId()), toDocument(product.getId(), product.getName()));
+      refresh();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Atualiza vários produtos (id -> nome) com um único refresh do leitor
+   */
+  public void indexAll(Map<Long, String> names) {
+    try {
+      for (Map.Entry<Long, String> product : names.entrySet()) {
+        writer.updateDocument(idTerm(product.getKey()), toDocument(product.getKey(), product.getValue()));
+      }
+      refresh();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void remove(Long id) {
+    try {
+      writer.deleteDocuments(idTerm(id));
+      refresh();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Retorna a página de ids de produtos que casam com o texto, do mais relevante ao menos
+   */
+  public Page<Long> search(String text, Pageable pageable) {
+    Query query = buildQuery(text);
+    if (query == null) {
+      return Page.empty(pageable);
+    }
+
+    try {
+      IndexSearcher searcher = searcherManager.acquire();
+      try {
+        int total = searcher.count(query);
+        // página além dos resultados (page muito alto não estoura o int do offset)
+        if (pageable.getOffset() >= total) {
+          return new PageImpl<>(List.of(), pageable, total);
+        }
+        int offset = (int) pageable.getOffset();
+        TopDocs topDocs = searcher.search(query, (int) Math.min(total, pageable.getOffset() + pageable.getPageSize()));
+        StoredFields storedFields = searcher.storedFields();
+
+        List<Long> ids = new ArrayList<>();
+        ScoreDoc[] hits = topDocs.scoreDocs;
+        for (int i = offset; i < hits.length; i++) {
+          ids.add(Long.valueOf(storedFields.document(hits[i].doc).get(ID)));
+        }
+        return new PageImpl<>(ids, pageable, total);
+      } finally {
+        searcherManager.release(searcher);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Todos os termos são obrigatórios; cada um casa por prefixo, e o termo completo soma relevância
+  private Query buildQuery(String text) {
+    List<String> terms = analyze(text);
+    if (terms.isEmpty()) {
+      return null;
+    }
+
+    BooleanQuery.Builder query = new BooleanQuery.Builder();
+    for (String term : terms) {
+      Query exact = new BoostQuery(new TermQuery(new Term(NAME, term)), EXACT_TERM_BOOST);
+      Query prefix = new PrefixQuery(new Term(NAME, term));
+      query.add(new BooleanQuery.Builder()
+        .add(exact, BooleanClause.Occur.SHOULD)
+        .add(prefix, BooleanClause.Occur.SHOULD)
+        .build(), BooleanClause.Occur.MUST);
+    }
+    return query.build();
+  }
+
+  private List<String> analyze(String text) {
+    List<String> terms = new ArrayList<>();
+    try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+      CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+      stream.reset();
+      while (stream.incrementToken()) {
+        terms.add(term.toString());
+      }
+      stream.end();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return terms;
+  }
+
+  private void refresh() throws IOException {
+    searcherManager.maybeRefresh();
+  }
+
+  private static Term idTerm(Long id) {
+    return new Term(ID, String.valueOf(id));
+  }
+
+  private static Document toDocument(Long id, String name) {
+    Document document = new Document();
+    document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+    document.add(new TextField(NAME, name == null ? "" : name, Field.Store.NO));
+    return document;
+  }
+
+  /**
+   * Tokenizador padrão + minúsculas + ASCII folding, usado tanto na indexação quanto na busca
+   */
+  private static class FoldingAnalyzer extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+      StandardTokenizer tokenizer = new StandardTokenizer();
+      TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+      return new TokenStreamComponents(tokenizer, stream);
+    }
+
+    @Override
+    protected TokenStream normalize(String fieldName, TokenStream in) {
+      return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.dscommerce.services.stock;
+
+import com.example.dscommerce.repositories.ProductStockRepository;
+import com.example.dscommerce.services.exceptions.InsufficientStockException;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Baixa direta em tb_product com UPDATE condicional, na transação do pedido.
+ * Os INSERTs do pedido são enviados antes, então os locks das linhas de produto
+ * duram só até o commit.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.reservation.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseStockReservation implements StockReservation {
+
+  private final ProductStockRepository productStockRepository;
+  private final EntityManager entityManager;
+
+  public DatabaseStockReservation(ProductStockRepository productStockRepository, EntityManager entityManager) {
+    this.productStockRepository = productStockRepository;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public boolean isDeferred() {
+    return false;
+  }
+
+  @Override
+  public void reserve(SortedMap<Long, Integer> quantities) {
+    entityManager.flush();
+    List<Long> insufficient = productStockRepository.decrease(quantities);
+    if (!insufficient.isEmpty()) {
+      // desfaz as baixas que passaram: em um lote com vários pedidos a transação não é desfeita
+      SortedMap<Long, Integer> decreased = new TreeMap<>(quantities);
+      decreased.keySet().removeAll(insufficient);
+      if (!decreased.isEmpty()) {
+        productStockRepository.increase(decreased);
+      }
+      throw new InsufficientStockException("Insufficient stock for products: " + insufficient);
+    }
+  }
+
+  @Override
+  public void release(SortedMap<Long, Integer> quantities) {
+    productStockRepository.increase(quantities);
+  }
+}
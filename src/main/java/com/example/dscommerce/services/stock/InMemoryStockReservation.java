@@ -0,0 +1,160 @@
+package com.example.dscommerce.services.stock;
+
+import com.example.dscommerce.repositories.ProductStockRepository;
+import com.example.dscommerce.services.exceptions.InsufficientStockException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saldo disponível de cada produto controlado em um contador em memória (CAS, sem lock).
+ *
+ * Em promoções poucos produtos recebem quase todos os pedidos e o UPDATE condicional enfileira
+ * as transações no lock da linha. Aqui a reserva é um compareAndSet no contador do produto; o
+ * pedido é gravado com stockApplied = false e o StockWriterJob aplica as baixas em tb_product em lotes.
+ *
+ * Os pedidos pendentes são duráveis (gravados na transação do pedido), então o saldo sempre pode
+ * ser reconstruído como stock do banco - quantidades dos pedidos ainda não aplicados: é o que
+ * acontece na inicialização, inclusive depois de uma queda com baixas pendentes.
+ *
+ * Válido apenas com uma instância da aplicação atendendo pedidos (os contadores não são compartilhados).
+ */
+@Component
+@ConditionalOnProperty(name = "stock.reservation.mode", havingValue = "memory")
+public class InMemoryStockReservation implements StockReservation {
+
+  private final ProductStockRepository productStockRepository;
+  private final Map<Long, AtomicLong> available = new ConcurrentHashMap<>();
+  // reservas de transações ainda abertas (ainda não visíveis como pedidos pendentes no banco)
+  private final Map<Long, AtomicLong> inFlight = new ConcurrentHashMap<>();
+
+  public InMemoryStockReservation(ProductStockRepository productStockRepository) {
+    this.productStockRepository = productStockRepository;
+  }
+
+  /**
+   * Recria todos os contadores a partir do banco (stock - pedidos pendentes)
+   */
+  @PostConstruct
+  public void rebuild() {
+    Map<Long, Long> stock = productStockRepository.findAvailableStock();
+    available.keySet().retainAll(stock.keySet());
+    stock.forEach((id, quantity) -> available.computeIfAbsent(id, key -> new AtomicLong()).set(quantity));
+  }
+
+  @Override
+  public boolean isDeferred() {
+    return true;
+  }
+
+  @Override
+  public void reserve(SortedMap<Long, Integer> quantities) {
+    List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+    List<Long> insufficient = new ArrayList<>();
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      if (tryDecrement(entry.getKey(), entry.getValue())) {
+        reserved.add(entry);
+      } else {
+        insufficient.add(entry.getKey());
+      }
+    }
+    if (!insufficient.isEmpty()) {
+      reserved.forEach(entry -> release(entry.getKey(), entry.getValue()));
+      throw new InsufficientStockException("Insufficient stock for products: " + insufficient);
+    }
+
+    reserved.forEach(entry -> inFlight(entry.getKey()).addAndGet(entry.getValue()));
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        for (Map.Entry<Long, Integer> entry : reserved) {
+          inFlight(entry.getKey()).addAndGet(-entry.getValue());
+          // em STATUS_UNKNOWN a reserva é mantida: nunca devolver saldo que pode ter sido vendido
+          if (status == STATUS_ROLLED_BACK) {
+            release(entry.getKey(), entry.getValue());
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * O estoque volta a tb_product na transação do cancelamento, mesmo que a baixa do pedido ainda
+   * esteja pendente: o StockWriterJob aplica a baixa depois e o saldo final fica correto.
+   * O contador só é devolvido depois do commit
+   */
+  @Override
+  public void release(SortedMap<Long, Integer> quantities) {
+    productStockRepository.increase(quantities);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        quantities.forEach((productId, quantity) -> InMemoryStockReservation.this.release(productId, quantity));
+      }
+    });
+  }
+
+  /**
+   * Recarrega o saldo do produto do banco, descontando as reservas ainda em andamento
+   */
+  @Override
+  public void stockChanged(Long productId) {
+    OptionalLong stock = productStockRepository.findAvailableStock(productId);
+    if (stock.isEmpty()) {
+      available.remove(productId);
+      return;
+    }
+    counter(productId).set(stock.getAsLong() - inFlight(productId).get());
+  }
+
+  /**
+   * Saldo disponível do produto, ou vazio se não houver controle de estoque
+   */
+  public OptionalLong available(Long productId) {
+    AtomicLong counter = available.get(productId);
+    return counter == null ? OptionalLong.empty() : OptionalLong.of(counter.get());
+  }
+
+  private boolean tryDecrement(Long productId, int quantity) {
+    AtomicLong counter = counter(productId);
+    long current;
+    do {
+      current = counter.get();
+      if (current < quantity) {
+        return false;
+      }
+    } while (!counter.compareAndSet(current, current - quantity));
+    return true;
+  }
+
+  private void release(Long productId, int quantity) {
+    counter(productId).addAndGet(quantity);
+  }
+
+  // Produto que passou a ter estoque depois do rebuild: carregado do banco no primeiro pedido.
+  // A consulta fica fora do mapa (computeIfAbsent seguraria o lock do bin, e de outros produtos,
+  // durante o round trip); em uma corrida vale o contador de quem publicou primeiro
+  private AtomicLong counter(Long productId) {
+    AtomicLong counter = available.get(productId);
+    if (counter != null) {
+      return counter;
+    }
+    AtomicLong loaded = new AtomicLong(productStockRepository.findAvailableStock(productId).orElse(0L));
+    AtomicLong previous = available.putIfAbsent(productId, loaded);
+    return previous == null ? loaded : previous;
+  }
+
+  private AtomicLong inFlight(Long productId) {
+    return inFlight.computeIfAbsent(productId, id -> new AtomicLong());
+  }
+}
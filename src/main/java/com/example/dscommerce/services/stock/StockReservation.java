@@ -0,0 +1,36 @@
+package com.example.dscommerce.services.stock;
+
+import java.util.SortedMap;
+
+/**
+ * Reserva de estoque dos pedidos, escolhida por stock.reservation.mode:
+ * - database: UPDATE condicional em tb_product na transação do pedido (padrão)
+ * - memory: contadores em memória por produto; a baixa em tb_product é feita depois, em lotes
+ */
+public interface StockReservation {
+
+  /**
+   * true quando a baixa em tb_product não acontece na transação do pedido: o pedido é gravado
+   * com stockApplied = false e o StockWriterJob aplica a baixa depois
+   */
+  boolean isDeferred();
+
+  /**
+   * Reserva as quantidades (id do produto -> quantidade, só produtos com estoque controlado).
+   * Deve rodar na transação do pedido; sem saldo lança InsufficientStockException
+   * sem deixar reserva parcial dos demais produtos
+   */
+  void reserve(SortedMap<Long, Integer> quantities);
+
+  /**
+   * Devolve o estoque de um pedido cancelado (id do produto -> quantidade, só produtos com estoque
+   * controlado). Deve rodar na transação do cancelamento
+   */
+  void release(SortedMap<Long, Integer> quantities);
+
+  /**
+   * O saldo do produto foi alterado pelo cadastro (chamado depois do commit)
+   */
+  default void stockChanged(Long productId) {
+  }
+}
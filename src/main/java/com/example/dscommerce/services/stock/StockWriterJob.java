@@ -0,0 +1,78 @@
+package com.example.dscommerce.services.stock;
+
+import com.example.dscommerce.repositories.ProductStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Aplica em tb_product, em lotes, as baixas dos pedidos reservados pelo InMemoryStockReservation.
+ * Cada lote soma as quantidades por produto (um UPDATE por produto, não por pedido) e marca os
+ * pedidos como aplicados na mesma transação: uma queda no meio não perde nem repete baixas.
+ *
+ * A baixa é o mesmo UPDATE condicional do modo database. Se o cadastro reduziu o saldo abaixo
+ * do que os pedidos pendentes já venderam, o produto fica como está e a diferença é registrada
+ * em log e em stock.apply.shortfall para conciliação, em vez de o saldo ser zerado em silêncio.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.reservation.mode", havingValue = "memory")
+public class StockWriterJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(StockWriterJob.class);
+
+  private final ProductStockRepository productStockRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Counter shortfalls;
+
+  @Value("${stock.reservation.flush-batch-size:500}")
+  private int batchSize;
+
+  public StockWriterJob(ProductStockRepository productStockRepository, PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+    this.productStockRepository = productStockRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.shortfalls = meterRegistry.counter("stock.apply.shortfall");
+  }
+
+  @Scheduled(fixedDelayString = "${stock.reservation.flush-interval:200ms}")
+  public void flushPending() {
+    int applied;
+    do {
+      applied = flush();
+    } while (applied == batchSize);
+  }
+
+  /**
+   * Aplica um lote de pedidos pendentes e retorna quantos pedidos foram aplicados
+   */
+  public int flush() {
+    Integer applied = transactionTemplate.execute(status -> {
+      List<Long> orderIds = productStockRepository.findUnappliedOrderIds(batchSize);
+      if (orderIds.isEmpty()) {
+        return 0;
+      }
+      SortedMap<Long, Integer> quantities = productStockRepository.sumQuantities(orderIds);
+      if (!quantities.isEmpty()) {
+        List<Long> shortOfStock = productStockRepository.decrease(quantities);
+        for (Long productId : shortOfStock) {
+          logger.error("Stock of product {} is below the {} units already sold by pending orders; "
+            + "left unchanged, reconcile it manually", productId, quantities.get(productId));
+          shortfalls.increment();
+        }
+      }
+      productStockRepository.markApplied(orderIds);
+      return orderIds.size();
+    });
+    return applied == null ? 0 : applied;
+  }
+}
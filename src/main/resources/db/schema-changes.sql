@@ -0,0 +1,194 @@
+-- Alterações de schema para os ambientes PostgreSQL (staging/prod), onde ddl-auto=none.
+-- Aplicar em ordem; cada bloco acompanha a mudança de mapeamento correspondente nas entidades.
+
+-- Order: ids gerados por sequência com alocação em blocos de 50 (pooled-lo),
+-- o que mantém o batching JDBC habilitado para tb_order e tb_order_item
+CREATE SEQUENCE IF NOT EXISTS tb_order_seq INCREMENT BY 50;
+SELECT setval('tb_order_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM tb_order), false);
+
+-- Product: listagem por cursor em GET /products/scroll faz seek por (name, id)
+CREATE INDEX IF NOT EXISTS idx_product_name_id ON tb_product (name, id);
+
+-- OAuth2: autorizações do login persistidas (security.authorization-store.type=jdbc).
+-- Schema do Spring Authorization Server adaptado ao PostgreSQL (blob -> text, timestamp -> timestamptz)
+CREATE TABLE IF NOT EXISTS oauth2_authorization (
+    id varchar(100) NOT NULL,
+    registered_client_id varchar(100) NOT NULL,
+    principal_name varchar(200) NOT NULL,
+    authorization_grant_type varchar(100) NOT NULL,
+    authorized_scopes varchar(1000) DEFAULT NULL,
+    attributes text DEFAULT NULL,
+    state varchar(500) DEFAULT NULL,
+    authorization_code_value text DEFAULT NULL,
+    authorization_code_issued_at timestamptz DEFAULT NULL,
+    authorization_code_expires_at timestamptz DEFAULT NULL,
+    authorization_code_metadata text DEFAULT NULL,
+    access_token_value text DEFAULT NULL,
+    access_token_issued_at timestamptz DEFAULT NULL,
+    access_token_expires_at timestamptz DEFAULT NULL,
+    access_token_metadata text DEFAULT NULL,
+    access_token_type varchar(100) DEFAULT NULL,
+    access_token_scopes varchar(1000) DEFAULT NULL,
+    oidc_id_token_value text DEFAULT NULL,
+    oidc_id_token_issued_at timestamptz DEFAULT NULL,
+    oidc_id_token_expires_at timestamptz DEFAULT NULL,
+    oidc_id_token_metadata text DEFAULT NULL,
+    refresh_token_value text DEFAULT NULL,
+    refresh_token_issued_at timestamptz DEFAULT NULL,
+    refresh_token_expires_at timestamptz DEFAULT NULL,
+    refresh_token_metadata text DEFAULT NULL,
+    user_code_value text DEFAULT NULL,
+    user_code_issued_at timestamptz DEFAULT NULL,
+    user_code_expires_at timestamptz DEFAULT NULL,
+    user_code_metadata text DEFAULT NULL,
+    device_code_value text DEFAULT NULL,
+    device_code_issued_at timestamptz DEFAULT NULL,
+    device_code_expires_at timestamptz DEFAULT NULL,
+    device_code_metadata text DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+-- findByToken busca por igualdade no valor do token (JWTs passam de 1 KB: hash em vez de B-tree)
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_access_token ON oauth2_authorization USING hash (access_token_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_refresh_token ON oauth2_authorization USING hash (refresh_token_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_state ON oauth2_authorization (state);
+-- limpeza periódica das autorizações expiradas
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_access_expires ON oauth2_authorization (access_token_expires_at);
+
+-- Chaves RSA de assinatura dos JWTs, compartilhadas entre réplicas (privada cifrada pela aplicação)
+CREATE TABLE IF NOT EXISTS tb_signing_key (
+    id varchar(255) NOT NULL,
+    public_key text,
+    private_key text,
+    created_at timestamp without time zone,
+    PRIMARY KEY (id)
+);
+
+-- Product: saldo em estoque (NULL = sem controle), baixado por UPDATE condicional no pedido
+ALTER TABLE tb_product ADD COLUMN IF NOT EXISTS stock integer;
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'chk_product_stock_non_negative') THEN
+    ALTER TABLE tb_product ADD CONSTRAINT chk_product_stock_non_negative CHECK (stock >= 0);
+  END IF;
+END $$;
+
+-- Order: baixa de estoque ainda pendente em tb_product (stock.reservation.mode=memory)
+ALTER TABLE tb_order ADD COLUMN IF NOT EXISTS stock_applied boolean NOT NULL DEFAULT TRUE;
+CREATE INDEX IF NOT EXISTS idx_order_stock_pending ON tb_order (id) WHERE stock_applied = FALSE;
+
+-- Idempotency-Key de POST /orders (gravada na transação do pedido; expira após idempotency.key-ttl)
+CREATE TABLE IF NOT EXISTS tb_idempotency_key (
+    id varchar(300) NOT NULL,
+    request_hash varchar(64) NOT NULL,
+    resource_id bigint,
+    created_at timestamp without time zone,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_created_at ON tb_idempotency_key (created_at);
+
+-- Pedidos aceitos em orders.placement.mode=async ainda não gravados em tb_order (orders.placement.store=database)
+CREATE TABLE IF NOT EXISTS tb_pending_order (
+    id bigint NOT NULL,
+    client_id bigint,
+    client_name varchar(255),
+    moment timestamp without time zone,
+    items text,
+    PRIMARY KEY (id)
+);
+-- Instância dona do pedido pendente: a recuperação só reenfileira linhas que conseguir assumir
+ALTER TABLE tb_pending_order ADD COLUMN IF NOT EXISTS owner varchar(36);
+ALTER TABLE tb_pending_order ADD COLUMN IF NOT EXISTS claimed_at timestamp without time zone;
+UPDATE tb_pending_order SET owner = '', claimed_at = moment WHERE owner IS NULL;
+
+-- Order: motivo de cancelamentos feitos pelo sistema (pedido assíncrono sem saldo ou que não pôde ser gravado)
+ALTER TABLE tb_order ADD COLUMN IF NOT EXISTS cancel_reason varchar(255);
+
+-- Outbox dos eventos de pedidos: gravado na transação do pedido, lido pela PK e apagado após a publicação
+CREATE SEQUENCE IF NOT EXISTS tb_outbox_event_seq START WITH 1 INCREMENT BY 1;
+CREATE TABLE IF NOT EXISTS tb_outbox_event (
+    id bigint NOT NULL,
+    aggregate_id bigint,
+    type varchar(255),
+    payload text,
+    created_at timestamp without time zone,
+    PRIMARY KEY (id)
+);
+
+-- Order: versão para controle de concorrência otimista das mudanças de status
+ALTER TABLE tb_order ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+-- Order: total e quantidade de unidades gravados no pedido (preenchidos a partir dos itens existentes)
+ALTER TABLE tb_order ADD COLUMN IF NOT EXISTS total double precision;
+ALTER TABLE tb_order ADD COLUMN IF NOT EXISTS item_count integer;
+UPDATE tb_order o SET
+    total = COALESCE((SELECT SUM(i.quantity * i.price) FROM tb_order_item i WHERE i.order_id = o.id), 0),
+    item_count = COALESCE((SELECT SUM(i.quantity) FROM tb_order_item i WHERE i.order_id = o.id), 0)
+WHERE o.total IS NULL OR o.item_count IS NULL;
+ALTER TABLE tb_order ALTER COLUMN total SET NOT NULL;
+ALTER TABLE tb_order ALTER COLUMN item_count SET NOT NULL;
+
+-- Histórico de pedidos (GET /orders): keyset em (moment, id) decrescente por cliente, por status e geral.
+-- INCLUDE traz as demais colunas de tb_order lidas pela listagem, então a página sai do índice sem ler
+-- o heap (index-only scan, com o visibility map em dia); o nome do cliente vem de tb_user pela PK.
+-- Na ordem por data, minTotal é filtrado sobre o total do INCLUDE durante a varredura em (moment, id);
+-- com sort=total a listagem usa idx_order_total_id e minTotal limita a faixa lida.
+-- O primeiro índice também atende a FK client_id
+CREATE INDEX IF NOT EXISTS idx_order_client_moment_id ON tb_order (client_id, moment DESC, id DESC)
+    INCLUDE (status, item_count, total);
+CREATE INDEX IF NOT EXISTS idx_order_status_moment_id ON tb_order (status, moment DESC, id DESC)
+    INCLUDE (client_id, item_count, total);
+CREATE INDEX IF NOT EXISTS idx_order_moment_id ON tb_order (moment DESC, id DESC)
+    INCLUDE (client_id, status, item_count, total);
+CREATE INDEX IF NOT EXISTS idx_order_total_id ON tb_order (total DESC, id DESC)
+    INCLUDE (client_id, status, moment, item_count);
+DROP INDEX IF EXISTS idx_order_total;
+
+-- Valores monetários em ponto fixo (Money, centavos): NUMERIC(19, 2) no lugar de double precision
+ALTER TABLE tb_product ALTER COLUMN price TYPE numeric(19, 2);
+ALTER TABLE tb_order_item ALTER COLUMN price TYPE numeric(19, 2);
+ALTER TABLE tb_order ALTER COLUMN total TYPE numeric(19, 2);
+
+-- Rollups de vendas (/analytics/sales): pedidos gravam deltas em tb_sales_delta, aplicados em lote
+-- nas tabelas por produto, categoria e dia (UTC) por SalesRollupJob
+-- Ids por sequência (SalesDelta, allocationSize 50) para os INSERTs irem em batch
+CREATE SEQUENCE IF NOT EXISTS tb_sales_delta_seq INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS tb_sales_delta (
+    id bigint NOT NULL,
+    order_id bigint NOT NULL,
+    placed integer NOT NULL,
+    paid integer NOT NULL,
+    PRIMARY KEY (id)
+);
+ALTER TABLE tb_sales_delta ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE TABLE IF NOT EXISTS tb_sales_by_product (
+    product_id bigint NOT NULL,
+    units bigint NOT NULL,
+    revenue numeric(19, 2) NOT NULL,
+    paid_units bigint NOT NULL,
+    paid_revenue numeric(19, 2) NOT NULL,
+    PRIMARY KEY (product_id)
+);
+CREATE TABLE IF NOT EXISTS tb_sales_by_category (
+    category_id bigint NOT NULL,
+    units bigint NOT NULL,
+    revenue numeric(19, 2) NOT NULL,
+    paid_units bigint NOT NULL,
+    paid_revenue numeric(19, 2) NOT NULL,
+    PRIMARY KEY (category_id)
+);
+CREATE TABLE IF NOT EXISTS tb_sales_by_day (
+    sales_date date NOT NULL,
+    orders bigint NOT NULL,
+    units bigint NOT NULL,
+    revenue numeric(19, 2) NOT NULL,
+    paid_orders bigint NOT NULL,
+    paid_units bigint NOT NULL,
+    paid_revenue numeric(19, 2) NOT NULL,
+    PRIMARY KEY (sales_date)
+);
+-- Trava do SalesRollupJob (fold, rebuild e backfill entre réplicas): uma única linha, id 1
+CREATE TABLE IF NOT EXISTS tb_sales_rollup_lock (
+    id integer NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO tb_sales_rollup_lock (id) VALUES (1) ON CONFLICT DO NOTHING;
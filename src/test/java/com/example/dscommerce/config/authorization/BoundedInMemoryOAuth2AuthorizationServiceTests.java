@@ -0,0 +1,65 @@
+package com.example.dscommerce.config.authorization;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedInMemoryOAuth2AuthorizationServiceTests {
+
+	private static final AuthorizationGrantType PASSWORD = new AuthorizationGrantType("password");
+
+	private final RegisteredClient client = RegisteredClient.withId("client")
+		.clientId("client")
+		.clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+		.authorizationGrantType(PASSWORD)
+		.build();
+
+	@Test
+	void sizeShouldStayBoundedUnderManyLogins() {
+		BoundedInMemoryOAuth2AuthorizationService service =
+			new BoundedInMemoryOAuth2AuthorizationService(100, Duration.ofHours(1));
+
+		for (int i = 0; i < 10_000; i++) {
+			service.save(newAuthorization());
+		}
+
+		assertThat(service.size()).isLessThanOrEqualTo(100);
+	}
+
+	@Test
+	void findByTokenShouldResolveSavedAccessTokenAndForgetRemovedOne() {
+		BoundedInMemoryOAuth2AuthorizationService service =
+			new BoundedInMemoryOAuth2AuthorizationService(100, Duration.ofHours(1));
+		OAuth2Authorization authorization = newAuthorization();
+		String token = authorization.getAccessToken().getToken().getTokenValue();
+
+		service.save(authorization);
+		assertThat(service.findByToken(token, OAuth2TokenType.ACCESS_TOKEN)).isEqualTo(authorization);
+		assertThat(service.findByToken(token, OAuth2TokenType.REFRESH_TOKEN)).isNull();
+
+		service.remove(authorization);
+		assertThat(service.findByToken(token, OAuth2TokenType.ACCESS_TOKEN)).isNull();
+		assertThat(service.findById(authorization.getId())).isNull();
+	}
+
+	private OAuth2Authorization newAuthorization() {
+		Instant now = Instant.now();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+			UUID.randomUUID().toString(), now, now.plusSeconds(3600));
+		return OAuth2Authorization.withRegisteredClient(client)
+			.principalName("maria@gmail.com")
+			.authorizationGrantType(PASSWORD)
+			.accessToken(accessToken)
+			.build();
+	}
+}
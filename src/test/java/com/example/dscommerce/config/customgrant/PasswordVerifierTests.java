@@ -0,0 +1,103 @@
+package com.example.dscommerce.config.customgrant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class PasswordVerifierTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private PasswordVerifier verifier;
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		if (verifier != null) {
+			verifier.close();
+		}
+	}
+
+	@Test
+	void matchesShouldAnswerTooManyRequestsWhenPoolAndQueueAreFull() throws Exception {
+		verifier = new PasswordVerifier(blockingEncoder(), 1, 1, Duration.ofSeconds(10));
+		// uma verificação ocupa a thread, outra ocupa a única vaga da fila
+		CompletableFuture.runAsync(() -> verifier.matches("a", "a"));
+		CompletableFuture.runAsync(() -> verifier.matches("b", "b"));
+		Thread.sleep(200);
+
+		OAuth2AuthenticationException exception = catchThrowableOfType(OAuth2AuthenticationException.class,
+			() -> verifier.matches("c", "c"));
+		assertThat(exception.getError().getErrorCode()).isEqualTo(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE);
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new CustomPasswordErrorResponseHandler().onAuthenticationFailure(new MockHttpServletRequest(), response, exception);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(response.getContentAsString()).contains(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE);
+	}
+
+	@Test
+	void matchesShouldGiveUpAfterTheTimeout() {
+		verifier = new PasswordVerifier(blockingEncoder(), 1, 1, Duration.ofMillis(100));
+
+		OAuth2AuthenticationException exception = catchThrowableOfType(OAuth2AuthenticationException.class,
+			() -> verifier.matches("a", "a"));
+
+		assertThat(exception.getError().getErrorCode()).isEqualTo(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE);
+	}
+
+	@Test
+	void upgradeIfNeededShouldRehashWeakerHashesInTheBackground() throws Exception {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(5);
+		verifier = new PasswordVerifier(encoder, 1, 1, Duration.ofSeconds(10));
+		String weak = new BCryptPasswordEncoder(4).encode("123456");
+
+		CompletableFuture<String> upgraded = new CompletableFuture<>();
+		verifier.upgradeIfNeeded("123456", weak, upgraded::complete);
+		String rehashed = upgraded.get(10, TimeUnit.SECONDS);
+
+		assertThat(rehashed).startsWith("$2a$05$");
+		assertThat(encoder.matches("123456", rehashed)).isTrue();
+		assertThat(encoder.upgradeEncoding(rehashed)).isFalse();
+
+		CompletableFuture<String> untouched = new CompletableFuture<>();
+		verifier.upgradeIfNeeded("123456", rehashed, untouched::complete);
+		Thread.sleep(200);
+		assertThat(untouched).isNotDone();
+	}
+
+	// Segura cada verificação até o fim do teste
+	private PasswordEncoder blockingEncoder() {
+		return new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				return rawPassword.toString();
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return rawPassword.toString().equals(encodedPassword);
+			}
+		};
+	}
+}
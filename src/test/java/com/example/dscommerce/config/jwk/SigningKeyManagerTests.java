@@ -0,0 +1,163 @@
+package com.example.dscommerce.config.jwk;
+
+import com.example.dscommerce.repositories.SigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Banco próprio: os testes apagam e recriam as chaves
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:signingkeydb")
+@ActiveProfiles("test")
+class SigningKeyManagerTests {
+
+	private static final String PASSWORD = "signing-key-tests";
+	private static final String SALT = "0123456789abcdef";
+	private static final Duration ROTATION = Duration.ofDays(30);
+	private static final Duration GRACE = Duration.ofHours(48);
+
+	@Autowired
+	private SigningKeyRepository signingKeyRepository;
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+	@BeforeEach
+	void clearKeys() {
+		signingKeyRepository.deleteAll();
+	}
+
+	@Test
+	void rotateIfDueShouldKeepTheOldKeyVerifiableOnlyDuringTheGracePeriod() {
+		SigningKeyManager manager = newManager(ROTATION);
+		manager.init();
+		String oldToken = sign(manager);
+		JwtDecoder decoder = decoder(manager);
+
+		clock.advance(ROTATION.plusDays(1));
+		manager.rotateIfDue();
+		String newToken = sign(manager);
+
+		assertThat(kid(decoder, newToken)).isNotEqualTo(kid(decoder, oldToken));
+		assertThat(signingKeyRepository.count()).isEqualTo(2);
+
+		clock.advance(GRACE.minusHours(1));
+		manager.rotateIfDue();
+		assertThatCode(() -> decoder.decode(oldToken)).doesNotThrowAnyException();
+
+		clock.advance(Duration.ofHours(2));
+		manager.rotateIfDue();
+		assertThatThrownBy(() -> decoder.decode(oldToken)).isInstanceOf(JwtException.class);
+		assertThatCode(() -> decoder.decode(newToken)).doesNotThrowAnyException();
+		assertThat(signingKeyRepository.count()).isEqualTo(1);
+	}
+
+	@Test
+	void unknownKidShouldReloadKeysCreatedByAnotherReplicaAtMostEveryTenSeconds() {
+		SigningKeyManager rotating = newManager(ROTATION);
+		SigningKeyManager replica = newManager(Duration.ofDays(365));
+		rotating.init();
+		replica.init();
+		JwtDecoder replicaDecoder = decoder(replica);
+
+		clock.advance(ROTATION.plusDays(1));
+		// a réplica relê o banco (sem rotação própria) logo antes da outra instância criar uma chave
+		replica.rotateIfDue();
+		rotating.rotateIfDue();
+		String token = sign(rotating);
+
+		clock.advance(Duration.ofSeconds(5));
+		assertThatThrownBy(() -> replicaDecoder.decode(token)).isInstanceOf(JwtException.class);
+
+		clock.advance(Duration.ofSeconds(6));
+		assertThatCode(() -> replicaDecoder.decode(token)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void rotateIfDueShouldCreateAKeyWhenNoneIsStored() {
+		SigningKeyManager manager = newManager(ROTATION);
+		manager.init();
+		signingKeyRepository.deleteAll();
+
+		manager.rotateIfDue();
+
+		assertThat(signingKeyRepository.count()).isEqualTo(1);
+		assertThatCode(() -> decoder(manager).decode(sign(manager))).doesNotThrowAnyException();
+	}
+
+	@Test
+	void initShouldFailWithoutEncryptionPasswordOrSalt() {
+		assertThatThrownBy(() -> new SigningKeyManager(signingKeyRepository, "", SALT, ROTATION, GRACE, clock).init())
+			.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> new SigningKeyManager(signingKeyRepository, PASSWORD, null, ROTATION, GRACE, clock).init())
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(signingKeyRepository.count()).isZero();
+	}
+
+	private SigningKeyManager newManager(Duration rotationPeriod) {
+		return new SigningKeyManager(signingKeyRepository, PASSWORD, SALT, rotationPeriod, GRACE, clock);
+	}
+
+	// exp/iat em tempo real: o JwtDecoder valida o token contra o relógio do sistema
+	private static String sign(SigningKeyManager manager) {
+		Instant now = Instant.now();
+		JwtClaimsSet claims = JwtClaimsSet.builder().subject("maria@gmail.com").issuedAt(now)
+			.expiresAt(now.plus(Duration.ofHours(1))).build();
+		JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).build();
+		return new NimbusJwtEncoder(manager.signingKey()).encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+	}
+
+	private static JwtDecoder decoder(SigningKeyManager manager) {
+		return OAuth2AuthorizationServerConfiguration.jwtDecoder(manager.verificationKeys());
+	}
+
+	private static String kid(JwtDecoder decoder, String token) {
+		return (String) decoder.decode(token).getHeaders().get("kid");
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		private void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
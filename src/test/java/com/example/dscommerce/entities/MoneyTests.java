@@ -0,0 +1,34 @@
+package com.example.dscommerce.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+	@Test
+	void sumsShouldBeExact() {
+		long cents = 0;
+		for (int i = 0; i < 10; i++) {
+			cents += Money.of(new BigDecimal("0.10")).centsTimes(1);
+		}
+
+		assertThat(Money.ofCents(cents)).isEqualTo(Money.of(BigDecimal.ONE));
+		assertThat(Money.of(new BigDecimal("0.1")).plus(Money.of(new BigDecimal("0.2"))).toBigDecimal())
+			.isEqualTo(new BigDecimal("0.30"));
+		assertThat(Money.of(new BigDecimal("1250.99")).times(3).toBigDecimal()).isEqualTo(new BigDecimal("3752.97"));
+	}
+
+	@Test
+	void ofShouldRejectFractionsOfACent() {
+		assertThatThrownBy(() -> Money.of(new BigDecimal("10.005"))).isInstanceOf(ArithmeticException.class);
+	}
+
+	@Test
+	void overflowShouldFailInsteadOfWrappingAround() {
+		assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).times(2)).isInstanceOf(ArithmeticException.class);
+	}
+}
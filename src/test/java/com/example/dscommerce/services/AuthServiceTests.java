@@ -0,0 +1,69 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.services.exceptions.ForbiddenException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTests {
+
+	// Não existe em tb_user: qualquer consulta ao banco falharia com UsernameNotFoundException
+	private static final String UNKNOWN_USERNAME = "nobody@example.com";
+
+	@Autowired
+	private AuthService authService;
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void validateSelfOrAdminShouldAllowTheTokenOwnerFromClaimsAlone() {
+		authenticate(UNKNOWN_USERNAME, 1L, "ROLE_CLIENT");
+
+		assertThatCode(() -> authService.validateSelfOrAdmin(1L)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void validateSelfOrAdminShouldForbidAnotherUserFromClaimsAlone() {
+		authenticate(UNKNOWN_USERNAME, 1L, "ROLE_CLIENT");
+
+		assertThatThrownBy(() -> authService.validateSelfOrAdmin(2L)).isInstanceOf(ForbiddenException.class);
+	}
+
+	@Test
+	void validateSelfOrAdminShouldAllowAdminsForAnyUser() {
+		authenticate(UNKNOWN_USERNAME, 2L, "ROLE_CLIENT", "ROLE_ADMIN");
+
+		assertThatCode(() -> authService.validateSelfOrAdmin(1L)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void validateSelfOrAdminShouldFallBackToTheUserWhenTheTokenHasNoUserId() {
+		authenticate("maria@gmail.com", null, "ROLE_CLIENT");
+
+		assertThatCode(() -> authService.validateSelfOrAdmin(1L)).doesNotThrowAnyException();
+		assertThatThrownBy(() -> authService.validateSelfOrAdmin(2L)).isInstanceOf(ForbiddenException.class);
+	}
+
+	private static void authenticate(String username, Long userId, String... authorities) {
+		Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "none").claim("username", username);
+		if (userId != null) {
+			builder.claim("user_id", userId);
+		}
+		SecurityContextHolder.getContext().setAuthentication(
+			new JwtAuthenticationToken(builder.build(), AuthorityUtils.createAuthorityList(authorities)));
+	}
+}
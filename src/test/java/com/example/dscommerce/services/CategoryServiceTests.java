@@ -0,0 +1,59 @@
+package com.example.dscommerce.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Banco próprio: o teste cadastra uma categoria
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:categoryservicedb")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CategoryServiceTests {
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void findAllShouldAnswerNotModifiedUntilRefreshPicksUpANewCategory() throws Exception {
+		String eTag = mockMvc.perform(get("/categories"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).isNotBlank();
+
+		mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+
+		jdbcTemplate.update("INSERT INTO tb_category (name) VALUES ('Jogos')");
+		// Até o próximo refresh o snapshot continua o mesmo
+		mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified());
+
+		categoryService.refresh();
+		String refreshed = mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[?(@.name == 'Jogos')]").exists())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(refreshed).isNotBlank().isNotEqualTo(eTag);
+
+		mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, refreshed))
+			.andExpect(status().isNotModified());
+	}
+}
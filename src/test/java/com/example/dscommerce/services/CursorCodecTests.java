@@ -0,0 +1,26 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTests {
+
+	@Test
+	void decodeShouldReturnTheEncodedParts() {
+		String cursor = CursorCodec.encode("PC Gamer, Ção/+=", "42");
+
+		assertThat(cursor).matches("[A-Za-z0-9_-]+");
+		assertThat(CursorCodec.decode(cursor, 2)).containsExactly("PC Gamer, Ção/+=", "42");
+		assertThat(CursorCodec.decode(CursorCodec.encode("", "1"), 2)).containsExactly("", "1");
+	}
+
+	@Test
+	void decodeShouldRejectGarbageAndUnexpectedParts() {
+		assertThatThrownBy(() -> CursorCodec.decode("not a cursor!", 2)).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> CursorCodec.decode(CursorCodec.encode("only-one"), 2)).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> CursorCodec.decode(CursorCodec.encode("a", "b", "c"), 2)).isInstanceOf(BadRequestException.class);
+	}
+}
@@ -0,0 +1,276 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.dto.CursorPageDTO;
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.dto.OrderSummaryDTO;
+import com.example.dscommerce.services.exceptions.BadRequestException;
+import com.example.dscommerce.services.exceptions.ForbiddenException;
+import com.example.dscommerce.services.exceptions.InsufficientStockException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderServiceTests {
+
+	// user lookup, product IN query, sequence, batched order insert, batched items insert,
+	// outbox event sequence and insert
+	private static final long MAX_INSERT_STATEMENTS = 8;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		authenticate("maria@gmail.com");
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void insertShouldNotIssueMoreStatementsForLargerOrders() {
+		long smallOrder = countStatements(() -> orderService.insert(newOrder(2)));
+		long largeOrder = countStatements(() -> orderService.insert(newOrder(20)));
+
+		assertThat(smallOrder).isLessThanOrEqualTo(MAX_INSERT_STATEMENTS);
+		assertThat(largeOrder).isLessThanOrEqualTo(smallOrder);
+	}
+
+	@Test
+	void findByIdShouldNotIssueMoreStatementsForLargerOrders() {
+		Long largeOrderId = orderService.insert(newOrder(20)).getId();
+		// aquece o cache do resumo do usuário autenticado, fora da contagem
+		orderService.findById(1L);
+
+		long smallOrder = countStatements(() -> orderService.findById(1L));
+		long largeOrder = countStatements(() -> orderService.findById(largeOrderId));
+
+		assertThat(largeOrder).isEqualTo(smallOrder);
+	}
+
+	@Test
+	void insertShouldNotOversellUnderConcurrentCheckouts() throws Exception {
+		long productId = 25L;
+		int stock = 10;
+		int checkouts = 50;
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", stock, productId);
+
+		AtomicInteger accepted = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int i = 0; i < checkouts; i++) {
+			tasks.add(() -> {
+				authenticate("maria@gmail.com");
+				try {
+					orderService.insert(newOrderOf(productId, 1));
+					accepted.incrementAndGet();
+				} catch (InsufficientStockException e) {
+					rejected.incrementAndGet();
+				} finally {
+					SecurityContextHolder.clearContext();
+				}
+				return null;
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			for (Future<Void> result : executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+			Integer remaining = jdbcTemplate.queryForObject("SELECT stock FROM tb_product WHERE id = ?", Integer.class, productId);
+			jdbcTemplate.update("UPDATE tb_product SET stock = NULL WHERE id = ?", productId);
+
+			assertThat(remaining).isZero();
+		}
+
+		assertThat(accepted.get()).isEqualTo(stock);
+		assertThat(rejected.get()).isEqualTo(checkouts - stock);
+	}
+
+	@Test
+	void insertWithSameIdempotencyKeyShouldCreateOneOrder() throws Exception {
+		String idempotencyKey = "checkout-" + System.nanoTime();
+		Integer ordersBefore = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_order", Integer.class);
+
+		List<Callable<Long>> retries = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			retries.add(() -> {
+				authenticate("maria@gmail.com");
+				try {
+					return orderService.insert(newOrderOf(1L, 1), idempotencyKey).getId();
+				} finally {
+					SecurityContextHolder.clearContext();
+				}
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		Set<Long> ids = new HashSet<>();
+		try {
+			for (Future<Long> result : executor.invokeAll(retries)) {
+				ids.add(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(ids).hasSize(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_order", Integer.class)).isEqualTo(ordersBefore + 1);
+		assertThatThrownBy(() -> orderService.insert(newOrderOf(2L, 1), idempotencyKey))
+			.isInstanceOf(BadRequestException.class);
+	}
+
+	@Test
+	void insertShouldReuseAnExpiredIdempotencyKeyNotYetPurged() {
+		String idempotencyKey = "expired-" + System.nanoTime();
+		jdbcTemplate.update("INSERT INTO tb_idempotency_key (id, request_hash, resource_id, created_at) VALUES (?, ?, ?, ?)",
+			"1:" + idempotencyKey, "stale-hash", 1L, Timestamp.from(Instant.now().minus(Duration.ofDays(2))));
+
+		OrderDTO created = orderService.insert(newOrderOf(1L, 1), idempotencyKey);
+
+		assertThat(created.getId()).isNotEqualTo(1L);
+		assertThat(jdbcTemplate.queryForObject("SELECT resource_id FROM tb_idempotency_key WHERE id = ?", Long.class,
+			"1:" + idempotencyKey)).isEqualTo(created.getId());
+		assertThat(orderService.insert(newOrderOf(1L, 1), idempotencyKey).getId()).isEqualTo(created.getId());
+	}
+
+	@Test
+	void insertShouldStoreTotalAndItemCountOnTheOrder() {
+		OrderDTO order = newOrderOf(1L, 2);
+		order.getItems().add(new OrderItemDTO(3L, null, null, 1, null));
+
+		OrderDTO created = orderService.insert(order);
+
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT total, item_count FROM tb_order WHERE id = ?", created.getId());
+		assertThat((BigDecimal) row.get("total")).isEqualByComparingTo(created.getTotal());
+		assertThat(((Number) row.get("item_count")).intValue()).isEqualTo(3);
+
+		List<OrderSummaryDTO> expensive = orderService.findAll(null, null, null, null, created.getTotal(), null, null, 100).getContent();
+		assertThat(expensive).extracting(OrderSummaryDTO::getId).contains(created.getId());
+		assertThat(expensive).allMatch(summary -> summary.getTotal().compareTo(created.getTotal()) >= 0);
+	}
+
+	@Test
+	void findAllShouldPageThroughOwnOrdersNewestFirst() {
+		for (int i = 0; i < 5; i++) {
+			orderService.insert(newOrderOf(1L, 1));
+		}
+		Integer ownOrders = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_order WHERE client_id = 1", Integer.class);
+
+		List<OrderSummaryDTO> listed = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<OrderSummaryDTO> page = orderService.findAll(null, null, null, null, null, null, cursor, 2);
+			assertThat(page.getContent()).hasSizeLessThanOrEqualTo(2);
+			listed.addAll(page.getContent());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(listed).hasSize(ownOrders);
+		assertThat(listed).allMatch(order -> order.getClient().getId() == 1L);
+		assertThat(listed).extracting(OrderSummaryDTO::getId).doesNotHaveDuplicates();
+		for (int i = 1; i < listed.size(); i++) {
+			assertThat(listed.get(i).getMoment()).isBeforeOrEqualTo(listed.get(i - 1).getMoment());
+		}
+		assertThatThrownBy(() -> orderService.findAll(2L, null, null, null, null, null, null, 2))
+			.isInstanceOf(ForbiddenException.class);
+	}
+
+	@Test
+	void findAllByTotalShouldPageFromTheLargestTotalDownToMinTotal() {
+		for (int quantity = 1; quantity <= 4; quantity++) {
+			orderService.insert(newOrderOf(1L, quantity));
+		}
+		BigDecimal minTotal = jdbcTemplate.queryForObject(
+			"SELECT MIN(total) FROM tb_order WHERE client_id = 1", BigDecimal.class).add(BigDecimal.ONE);
+		Integer expected = jdbcTemplate.queryForObject(
+			"SELECT COUNT(*) FROM tb_order WHERE client_id = 1 AND total >= ?", Integer.class, minTotal);
+
+		List<OrderSummaryDTO> listed = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<OrderSummaryDTO> page = orderService.findAll(null, null, null, null, minTotal, "total", cursor, 2);
+			listed.addAll(page.getContent());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(listed).hasSize(expected);
+		assertThat(listed).extracting(OrderSummaryDTO::getId).doesNotHaveDuplicates();
+		assertThat(listed).allMatch(order -> order.getTotal().compareTo(minTotal) >= 0);
+		for (int i = 1; i < listed.size(); i++) {
+			assertThat(listed.get(i).getTotal()).isLessThanOrEqualTo(listed.get(i - 1).getTotal());
+		}
+		assertThatThrownBy(() -> orderService.findAll(null, null, null, null, null, "price", null, 2))
+			.isInstanceOf(BadRequestException.class);
+	}
+
+	private long countStatements(Runnable action) {
+		statistics.clear();
+		action.run();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static OrderDTO newOrder(int itemCount) {
+		OrderDTO dto = new OrderDTO();
+		for (long productId = 1; productId <= itemCount; productId++) {
+			dto.getItems().add(new OrderItemDTO(productId, null, null, 1, null));
+		}
+		return dto;
+	}
+
+	private static OrderDTO newOrderOf(long productId, int quantity) {
+		OrderDTO dto = new OrderDTO();
+		dto.getItems().add(new OrderItemDTO(productId, null, null, quantity, null));
+		return dto;
+	}
+
+	private static void authenticate(String username) {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", username).build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+}
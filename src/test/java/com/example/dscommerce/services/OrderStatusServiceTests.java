@@ -0,0 +1,132 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.dto.OrderStatusDTO;
+import com.example.dscommerce.dto.PaymentDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.services.exceptions.ConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Banco próprio: este contexto recria o schema e não pode interferir nos outros testes
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:orderstatusdb")
+@ActiveProfiles("test")
+class OrderStatusServiceTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderStatusService orderStatusService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		authenticate("maria@gmail.com");
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void duplicatePaymentCallbacksShouldPayOnce() throws Exception {
+		Long orderId = orderService.insert(newOrderOf(1L, 1)).getId();
+
+		List<Callable<PaymentDTO>> callbacks = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			callbacks.add(() -> {
+				authenticate("maria@gmail.com");
+				try {
+					return orderStatusService.pay(orderId);
+				} finally {
+					SecurityContextHolder.clearContext();
+				}
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		Set<Long> payments = new HashSet<>();
+		try {
+			for (Future<PaymentDTO> result : executor.invokeAll(callbacks)) {
+				payments.add(result.get().getId());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(payments).containsExactly(orderId);
+		assertThat(jdbcTemplate.queryForObject("SELECT version FROM tb_order WHERE id = ?", Long.class, orderId)).isEqualTo(1L);
+		assertThat(jdbcTemplate.queryForObject(
+			"SELECT COUNT(*) FROM tb_outbox_event WHERE aggregate_id = ? AND type = 'ORDER_STATUS_CHANGED'", Integer.class, orderId))
+			.isEqualTo(1);
+	}
+
+	@Test
+	void changeStatusShouldFollowTheStateMachine() {
+		Long orderId = orderService.insert(newOrderOf(1L, 1)).getId();
+
+		assertThatThrownBy(() -> orderStatusService.changeStatus(orderId, new OrderStatusDTO(null, OrderStatus.SHIPPED, null)))
+			.isInstanceOf(ConflictException.class);
+
+		orderStatusService.pay(orderId);
+		OrderStatusDTO shipped = orderStatusService.changeStatus(orderId, new OrderStatusDTO(null, OrderStatus.SHIPPED, 1L));
+
+		assertThat(shipped.getVersion()).isEqualTo(2L);
+		assertThatThrownBy(() -> orderStatusService.changeStatus(orderId, new OrderStatusDTO(null, OrderStatus.DELIVERED, 1L)))
+			.isInstanceOf(ConflictException.class);
+		assertThatThrownBy(() -> orderStatusService.changeStatus(orderId, new OrderStatusDTO(null, OrderStatus.CANCELED, null)))
+			.isInstanceOf(ConflictException.class);
+	}
+
+	@Test
+	void cancelShouldReleaseStock() {
+		long productId = 25L;
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", 5, productId);
+		try {
+			Long orderId = orderService.insert(newOrderOf(productId, 3)).getId();
+
+			orderStatusService.changeStatus(orderId, new OrderStatusDTO(null, OrderStatus.CANCELED, null));
+
+			assertThat(jdbcTemplate.queryForObject("SELECT stock FROM tb_product WHERE id = ?", Integer.class, productId)).isEqualTo(5);
+			assertThatThrownBy(() -> orderStatusService.pay(orderId)).isInstanceOf(ConflictException.class);
+		} finally {
+			jdbcTemplate.update("UPDATE tb_product SET stock = NULL WHERE id = ?", productId);
+		}
+	}
+
+	private static OrderDTO newOrderOf(long productId, int quantity) {
+		OrderDTO dto = new OrderDTO();
+		dto.getItems().add(new OrderItemDTO(productId, null, null, quantity, null));
+		return dto;
+	}
+
+	private static void authenticate(String username) {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", username).build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+}
@@ -0,0 +1,159 @@
+package com.example.dscommerce.services;
+
+import com.example.dscommerce.dto.CategoryDTO;
+import com.example.dscommerce.dto.CursorPageDTO;
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.dto.ProductDTO;
+import com.example.dscommerce.dto.ProductMinDTO;
+import com.example.dscommerce.services.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Banco próprio: os testes cadastram produtos
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:productservicedb",
+	"cache.product-detail.negative-ttl=200ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductServiceTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void scrollShouldVisitProductsWithTheSameNameExactlyOnce() {
+		List<Long> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			expected.add(productService.insert(newProduct("Scroll Twin")).getId());
+		}
+
+		List<Long> visited = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CursorPageDTO<ProductMinDTO> page = productService.scroll("Scroll Twin", cursor, 2);
+			page.getContent().forEach(product -> visited.add(product.getId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(visited).containsExactlyElementsOf(expected);
+		assertThat(pages).isEqualTo(3);
+	}
+
+	@Test
+	void scrollShouldReturnBadRequestForInvalidCursors() throws Exception {
+		mockMvc.perform(get("/products/scroll").param("cursor", "garbage!"))
+			.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/products/scroll").param("cursor", CursorCodec.encode("PC Gamer")))
+			.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/products/scroll").param("cursor", CursorCodec.encode("PC Gamer", "not-an-id")))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void findAllShouldReturnTotalsUnlessTheCountIsSkipped() throws Exception {
+		mockMvc.perform(get("/products").param("name", "PC Gamer"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").isNumber())
+			.andExpect(jsonPath("$.totalPages").isNumber());
+		mockMvc.perform(get("/products").param("name", "PC Gamer").param("includeTotal", "false"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").doesNotExist())
+			.andExpect(jsonPath("$.last").isBoolean());
+	}
+
+	@Test
+	void findByIdShouldSeeUpdatesAndDeletesOnlyAfterCommit() {
+		Long id = productService.insert(newProduct("Cached Original")).getId();
+		assertThat(productService.findById(id).getName()).isEqualTo("Cached Original");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			productService.update(id, newProduct("Cached Rolled Back"));
+			status.setRollbackOnly();
+		});
+		assertThat(productService.findById(id).getName()).isEqualTo("Cached Original");
+
+		productService.update(id, newProduct("Cached Updated"));
+		assertThat(productService.findById(id).getName()).isEqualTo("Cached Updated");
+
+		productService.delete(id);
+		assertThatThrownBy(() -> productService.findById(id)).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void findByIdShouldForgetMissingIdsAfterTheNegativeTtl() throws InterruptedException {
+		long id = 900_000L;
+		assertThatThrownBy(() -> productService.findById(id)).isInstanceOf(ResourceNotFoundException.class);
+
+		// Inserido por fora do serviço: nada invalida a entrada negativa
+		jdbcTemplate.update("INSERT INTO tb_product (id, name, price, description, img_url) VALUES (?, ?, ?, ?, ?)",
+			id, "Late Arrival", new BigDecimal("10.00"), "Inserted behind the cache", null);
+		assertThatThrownBy(() -> productService.findById(id)).isInstanceOf(ResourceNotFoundException.class);
+
+		Thread.sleep(400);
+		assertThat(productService.findById(id).getName()).isEqualTo("Late Arrival");
+	}
+
+	@Test
+	void ordersShouldNotEvictTheCachedDetailOfTheirProducts() {
+		ProductDTO stocked = new ProductDTO(null, "Cached Bestseller", "Product created by the service tests",
+			new BigDecimal("10.00"), null, 10);
+		stocked.getCategories().add(new CategoryDTO(1L, null));
+		Long id = productService.insert(stocked).getId();
+		ProductDTO cached = productService.findById(id);
+
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", "maria@gmail.com").build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+		try {
+			OrderDTO order = new OrderDTO();
+			order.getItems().add(new OrderItemDTO(id, null, null, 2, null));
+			orderService.insert(order);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+
+		// o saldo exibido fica defasado até o TTL; a entrada continua servindo do cache
+		assertThat(productService.findById(id)).isSameAs(cached);
+		assertThat(jdbcTemplate.queryForObject("SELECT stock FROM tb_product WHERE id = ?", Integer.class, id)).isEqualTo(8);
+	}
+
+	private static ProductDTO newProduct(String name) {
+		ProductDTO dto = new ProductDTO(null, name, "Product created by the service tests", new BigDecimal("10.00"), null);
+		dto.getCategories().add(new CategoryDTO(1L, null));
+		return dto;
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.dscommerce.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco próprio: o teste troca a senha de um usuário
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:userservicedb")
+@ActiveProfiles("test")
+class UserServiceTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void updatePasswordShouldEvictTheCachedCredentials() {
+		UserDetails cached = userService.loadUserByUsername("maria@gmail.com");
+		String oldHash = cached.getPassword();
+
+		// Uma troca feita por fora do serviço fica invisível enquanto a entrada estiver em cache
+		jdbcTemplate.update("UPDATE tb_user SET password = 'outside' WHERE email = 'maria@gmail.com'");
+		assertThat(userService.loadUserByUsername("maria@gmail.com").getPassword()).isEqualTo(oldHash);
+
+		String newHash = passwordEncoder.encode("new-password");
+		userService.updatePassword(cached, newHash);
+
+		UserDetails reloaded = userService.loadUserByUsername("maria@gmail.com");
+		assertThat(reloaded.getPassword()).isEqualTo(newHash).isNotEqualTo(oldHash);
+		assertThat(passwordEncoder.matches("new-password", reloaded.getPassword())).isTrue();
+	}
+
+	@Test
+	void evictAuthenticatedUserShouldMakeARevokedRoleStopCounting() {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", "alex@gmail.com").build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+		try {
+			assertThat(userService.authenticatedUser().hasRole("ROLE_ADMIN")).isTrue();
+
+			jdbcTemplate.update("DELETE FROM tb_user_role WHERE user_id = 2 AND role_id = 2");
+			userService.evictAuthenticatedUser("alex@gmail.com");
+			// próxima requisição: sem o valor memorizado na requisição do teste
+			RequestContextHolder.resetRequestAttributes();
+
+			assertThat(userService.authenticatedUser().hasRole("ROLE_ADMIN")).isFalse();
+		} finally {
+			jdbcTemplate.update("INSERT INTO tb_user_role (user_id, role_id) VALUES (2, 2)");
+			SecurityContextHolder.clearContext();
+		}
+	}
+}
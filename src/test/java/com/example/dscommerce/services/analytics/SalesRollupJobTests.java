@@ -0,0 +1,162 @@
+package com.example.dscommerce.services.analytics;
+
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.dto.OrderStatusDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.services.OrderService;
+import com.example.dscommerce.services.OrderStatusService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+// Banco próprio: os rollups somam todos os pedidos do banco
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:salesrollupdb")
+@ActiveProfiles("test")
+class SalesRollupJobTests {
+
+	private static final long PRODUCT_ID = 3L;
+	private static final long CATEGORY_ID = 3L;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderStatusService orderStatusService;
+
+	@Autowired
+	private SalesRollupJob salesRollupJob;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", "maria@gmail.com").build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+		salesRollupJob.foldPending();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void foldShouldApplyPlacedPaidAndCanceledOrders() {
+		BigDecimal price = jdbcTemplate.queryForObject("SELECT price FROM tb_product WHERE id = ?", BigDecimal.class, PRODUCT_ID);
+		Map<String, Object> productBefore = productRollup();
+		Map<String, Object> categoryBefore = categoryRollup();
+
+		Long paidId = orderService.insert(newOrderOf(2)).getId();
+		Long canceledId = orderService.insert(newOrderOf(3)).getId();
+		orderStatusService.pay(paidId);
+		salesRollupJob.foldPending();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_sales_delta", Integer.class)).isZero();
+		assertIncreased(productBefore, productRollup(), 5, price.multiply(BigDecimal.valueOf(5)), 2, price.multiply(BigDecimal.valueOf(2)));
+		assertIncreased(categoryBefore, categoryRollup(), 5, price.multiply(BigDecimal.valueOf(5)), 2, price.multiply(BigDecimal.valueOf(2)));
+
+		orderStatusService.changeStatus(canceledId, new OrderStatusDTO(null, OrderStatus.CANCELED, null));
+		orderStatusService.changeStatus(paidId, new OrderStatusDTO(null, OrderStatus.CANCELED, null));
+		salesRollupJob.foldPending();
+
+		assertIncreased(productBefore, productRollup(), 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+		assertIncreased(categoryBefore, categoryRollup(), 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+	}
+
+	@Test
+	void rebuildShouldMatchIncrementalRollups() {
+		Long orderId = orderService.insert(newOrderOf(4)).getId();
+		orderStatusService.pay(orderId);
+		salesRollupJob.foldPending();
+		List<Map<String, Object>> products = rollups("tb_sales_by_product", "product_id");
+		List<Map<String, Object>> categories = rollups("tb_sales_by_category", "category_id");
+		List<Map<String, Object>> days = rollups("tb_sales_by_day", "sales_date");
+
+		salesRollupJob.rebuild();
+
+		assertThat(rollups("tb_sales_by_product", "product_id")).isEqualTo(products);
+		assertThat(rollups("tb_sales_by_category", "category_id")).isEqualTo(categories);
+		assertThat(rollups("tb_sales_by_day", "sales_date")).isEqualTo(days);
+	}
+
+	@Test
+	void concurrentRebuildsShouldBeSerialized() {
+		orderService.insert(newOrderOf(1));
+		salesRollupJob.foldPending();
+		List<Map<String, Object>> days = rollups("tb_sales_by_day", "sales_date");
+
+		CompletableFuture<Void> first = CompletableFuture.runAsync(salesRollupJob::rebuild);
+		CompletableFuture<Void> second = CompletableFuture.runAsync(salesRollupJob::rebuild);
+		CompletableFuture.allOf(first, second).join();
+
+		assertThat(rollups("tb_sales_by_day", "sales_date")).isEqualTo(days);
+	}
+
+	@Test
+	void backfillShouldNotThrowWhenRebuildFails() {
+		jdbcTemplate.update("DELETE FROM tb_sales_rollup_lock");
+		try {
+			assertThatCode(salesRollupJob::backfill).doesNotThrowAnyException();
+		} finally {
+			jdbcTemplate.update("INSERT INTO tb_sales_rollup_lock (id) VALUES (1)");
+		}
+	}
+
+	private static void assertIncreased(Map<String, Object> before, Map<String, Object> after,
+										long units, BigDecimal revenue, long paidUnits, BigDecimal paidRevenue) {
+		assertThat(number(after, "UNITS") - number(before, "UNITS")).isEqualTo(units);
+		assertThat(decimal(after, "REVENUE").subtract(decimal(before, "REVENUE"))).isEqualByComparingTo(revenue);
+		assertThat(number(after, "PAID_UNITS") - number(before, "PAID_UNITS")).isEqualTo(paidUnits);
+		assertThat(decimal(after, "PAID_REVENUE").subtract(decimal(before, "PAID_REVENUE"))).isEqualByComparingTo(paidRevenue);
+	}
+
+	private Map<String, Object> productRollup() {
+		return rollup("SELECT * FROM tb_sales_by_product WHERE product_id = ?", PRODUCT_ID);
+	}
+
+	private Map<String, Object> categoryRollup() {
+		return rollup("SELECT * FROM tb_sales_by_category WHERE category_id = ?", CATEGORY_ID);
+	}
+
+	private Map<String, Object> rollup(String sql, long id) {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, id);
+		return rows.isEmpty() ? Map.of() : rows.get(0);
+	}
+
+	private List<Map<String, Object>> rollups(String table, String key) {
+		return jdbcTemplate.queryForList("SELECT * FROM " + table + " ORDER BY " + key);
+	}
+
+	private static long number(Map<String, Object> row, String column) {
+		Object value = row.get(column);
+		return value == null ? 0 : ((Number) value).longValue();
+	}
+
+	private static BigDecimal decimal(Map<String, Object> row, String column) {
+		Object value = row.get(column);
+		return value == null ? BigDecimal.ZERO : (BigDecimal) value;
+	}
+
+	private static OrderDTO newOrderOf(int quantity) {
+		OrderDTO dto = new OrderDTO();
+		dto.getItems().add(new OrderItemDTO(PRODUCT_ID, null, null, quantity, null));
+		return dto;
+	}
+}
@@ -0,0 +1,30 @@
+package com.example.dscommerce.services.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTests {
+
+	@Test
+	void readShouldHandleQuotedFieldsAndLineEndings() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("\uFEFFa,b,c\r\n\"x, y\",\"say \"\"hi\"\"\",\n\n\"multi\nline\",,z"));
+
+		assertThat(csv.read()).containsExactly("a", "b", "c");
+		assertThat(csv.read()).containsExactly("x, y", "say \"hi\"", "");
+		assertThat(csv.read()).containsExactly("multi\nline", "", "z");
+		assertThat(csv.read()).isNull();
+	}
+
+	@Test
+	void readShouldRejectUnterminatedQuotes() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("a,b\n\"open,b\n"));
+
+		assertThat(csv.read()).containsExactly("a", "b");
+		assertThatThrownBy(csv::read).isInstanceOf(IOException.class);
+	}
+}
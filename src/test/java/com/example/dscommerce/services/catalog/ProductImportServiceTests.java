@@ -0,0 +1,132 @@
+package com.example.dscommerce.services.catalog;
+
+import com.example.dscommerce.dto.ImportErrorDTO;
+import com.example.dscommerce.dto.ImportReportDTO;
+import com.example.dscommerce.dto.ProductDTO;
+import com.example.dscommerce.repositories.ProductBatchRepository;
+import com.example.dscommerce.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+// Banco próprio e chunks pequenos: a importação altera o catálogo usado pelos outros testes
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:productimportdb",
+	"product.import.batch-size=2"
+})
+@ActiveProfiles("test")
+class ProductImportServiceTests {
+
+	@Autowired
+	private ProductImportService productImportService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoSpyBean
+	private ProductBatchRepository productBatchRepository;
+
+	@Test
+	void importCsvShouldUpsertValidRowsAndReportTheOthers() throws IOException {
+		long before = countProducts();
+		String csv = """
+			id,name,description,price,imgUrl,stock,categories
+			,Imported keyboard,Mechanical keyboard,199.90,,10,2|3
+			4,PC Gamer Renamed,Renamed by the supplier file,1300.00,,,3
+			,Bad price,Valid description here,abc,,,1
+			,Unknown category,Valid description here,10.00,,,99
+			999999,Missing product,Valid description here,10.00,,,1
+			,Too long image,Valid description here,10.00,%s,,1
+			,"Quoted, name",Valid description here,5.50,,,1|1
+			""".formatted("x".repeat(300));
+
+		ImportReportDTO report = productImportService.importCsv(stream(csv));
+
+		assertThat(report.getRows()).isEqualTo(7);
+		assertThat(report.getInserted()).isEqualTo(2);
+		assertThat(report.getUpdated()).isEqualTo(1);
+		assertThat(report.getFailed()).isEqualTo(4);
+		assertThat(report.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(3L, 4L, 5L, 6L);
+		assertThat(countProducts()).isEqualTo(before + 2);
+
+		ProductDTO updated = productService.findById(4L);
+		assertThat(updated.getName()).isEqualTo("PC Gamer Renamed");
+		assertThat(updated.getPrice()).isEqualByComparingTo(new BigDecimal("1300.00"));
+		assertThat(updated.getCategories()).extracting(category -> category.getId()).containsExactly(3L);
+		assertThat(jdbcTemplate.queryForObject(
+			"SELECT stock FROM tb_product WHERE name = 'Imported keyboard'", Integer.class)).isEqualTo(10);
+	}
+
+	@Test
+	void importNdjsonShouldSkipBlankLinesAndReportInvalidJson() {
+		String ndjson = """
+			{"name":"Imported mouse","description":"Wireless mouse","price":59.90,"categories":[{"id":2}]}
+
+			{"name":"broken"
+			""";
+
+		ImportReportDTO report = productImportService.importNdjson(stream(ndjson));
+
+		assertThat(report.getRows()).isEqualTo(2);
+		assertThat(report.getInserted()).isEqualTo(1);
+		assertThat(report.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(2L);
+	}
+
+	@Test
+	void importNdjsonShouldReportNullCategories() {
+		String ndjson = """
+			{"name":"No categories","description":"Valid description here","price":10.00,"categories":null}
+			{"name":"Imported pad","description":"Large mouse pad","price":25.00,"categories":[{"id":1}]}
+			""";
+
+		ImportReportDTO report = productImportService.importNdjson(stream(ndjson));
+
+		assertThat(report.getInserted()).isEqualTo(1);
+		assertThat(report.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(1L);
+		assertThat(report.getErrors().get(0).getMessage()).contains("categories");
+	}
+
+	@Test
+	void importShouldReportRowsFailingWithAnyRuntimeException() {
+		doThrow(new ArithmeticException("long overflow")).when(productBatchRepository)
+			.insertAll(argThat(products -> products.stream().anyMatch(product -> product.getName().equals("Overflowing"))));
+		long before = countProducts();
+		String ndjson = """
+			{"name":"Overflowing","description":"Valid description here","price":10.00,"categories":[{"id":1}]}
+			{"name":"Imported webcam","description":"Full HD webcam","price":150.00,"categories":[{"id":2}]}
+			{"name":"Imported headset","description":"Wireless headset","price":300.00,"categories":[{"id":2}]}
+			""";
+
+		ImportReportDTO report = productImportService.importNdjson(stream(ndjson));
+
+		assertThat(report.getRows()).isEqualTo(3);
+		assertThat(report.getInserted()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(1L);
+		assertThat(report.getErrors().get(0).getMessage()).isEqualTo("Could not be saved: long overflow");
+		assertThat(countProducts()).isEqualTo(before + 2);
+	}
+
+	private long countProducts() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_product", Long.class);
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.dscommerce.services.outbox;
+
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.entities.OutboxEvent;
+import com.example.dscommerce.services.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco próprio: este contexto recria o schema e não pode interferir nos outros testes
+@SpringBootTest(properties = {
+	"outbox.publisher=memory",
+	"outbox.relay.interval=1h",
+	"spring.datasource.url=jdbc:h2:mem:outboxdb"
+})
+@ActiveProfiles("test")
+class OutboxRelayTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private InMemoryOutboxPublisher publisher;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		outboxRelay.relayPending();
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", "maria@gmail.com").build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void relayShouldPublishCommittedOrdersInOrderAndDrainTheOutbox() {
+		Long first = orderService.insert(newOrderOf(1L)).getId();
+		Long second = orderService.insert(newOrderOf(2L)).getId();
+		int publishedBefore = publisher.published().size();
+
+		int relayed = outboxRelay.relay();
+
+		List<OutboxEvent> published = publisher.published();
+		List<Long> orderIds = published.subList(publishedBefore, published.size()).stream()
+			.map(OutboxEvent::getAggregateId)
+			.toList();
+		assertThat(relayed).isEqualTo(2);
+		assertThat(orderIds).containsExactly(first, second);
+		assertThat(published.getLast().getType()).isEqualTo(OrderEventOutbox.ORDER_CREATED);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_outbox_event", Integer.class)).isZero();
+	}
+
+	private static OrderDTO newOrderOf(long productId) {
+		OrderDTO dto = new OrderDTO();
+		dto.getItems().add(new OrderItemDTO(productId, null, null, 1, null));
+		return dto;
+	}
+}
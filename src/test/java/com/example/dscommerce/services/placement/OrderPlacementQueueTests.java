@@ -0,0 +1,184 @@
+package com.example.dscommerce.services.placement;
+
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.entities.OrderStatus;
+import com.example.dscommerce.services.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+// Banco próprio: este contexto recria o schema e não pode interferir nos outros testes
+@SpringBootTest(properties = {
+	"orders.placement.mode=async",
+	"orders.placement.store=database",
+	"orders.placement.batch-size=2",
+	"orders.placement.recovery-after=5s",
+	"orders.placement.recovery-interval=200ms",
+	"spring.datasource.url=jdbc:h2:mem:orderplacementdb"
+})
+@ActiveProfiles("test")
+class OrderPlacementQueueTests {
+
+	private static final long PRODUCT_ID = 22L;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderPlacementQueue placementQueue;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoSpyBean
+	private PendingOrderWriter pendingOrderWriter;
+
+	@MockitoSpyBean
+	private PendingOrderStore pendingOrderStore;
+
+	@BeforeEach
+	void setUp() {
+		authenticate("maria@gmail.com");
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("UPDATE tb_product SET stock = NULL WHERE id = ?", PRODUCT_ID);
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void acceptedOrdersShouldBeWrittenInBackgroundWithoutOverselling() throws Exception {
+		int stock = 3;
+		int orders = 5;
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", stock, PRODUCT_ID);
+
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < orders; i++) {
+			OrderDTO accepted = orderService.enqueue(newOrderOf(PRODUCT_ID, 1), null);
+			assertThat(accepted.getStatus()).isEqualTo(OrderStatus.PENDING);
+			ids.add(accepted.getId());
+		}
+
+		List<OrderStatus> statuses = awaitPlaced(ids);
+
+		assertThat(statuses).filteredOn(status -> status == OrderStatus.WAITING_PAYMENT).hasSize(stock);
+		assertThat(statuses).filteredOn(status -> status == OrderStatus.CANCELED).hasSize(orders - stock);
+		assertThat(jdbcTemplate.queryForObject("SELECT stock FROM tb_product WHERE id = ?", Integer.class, PRODUCT_ID)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_pending_order", Integer.class)).isZero();
+	}
+
+	@Test
+	void staleOrdersOfAnotherInstanceShouldAllBeRecoveredButLiveOnesLeftAlone() throws Exception {
+		Instant stale = Instant.now().minus(Duration.ofHours(1));
+		List<Long> stranded = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			stranded.add(insertPending("crashed-replica", stale, PRODUCT_ID + ":1:10.00"));
+		}
+		Long live = insertPending("live-replica", Instant.now(), PRODUCT_ID + ":1:10.00");
+
+		assertThat(awaitPlaced(stranded)).containsOnly(OrderStatus.WAITING_PAYMENT);
+		Thread.sleep(1000);
+		assertThat(orderService.findById(live).getStatus()).isEqualTo(OrderStatus.PENDING);
+		assertThat(jdbcTemplate.queryForObject("SELECT owner FROM tb_pending_order WHERE id = ?", String.class, live))
+			.isEqualTo("live-replica");
+		jdbcTemplate.update("DELETE FROM tb_pending_order WHERE id = ?", live);
+	}
+
+	@Test
+	void orderThatCannotBeWrittenShouldBeCanceledWithAReason() throws Exception {
+		// o total estoura o limite de Money: a gravação falha sempre, não só neste lote
+		Long poison = insertPending("crashed-replica", Instant.now().minus(Duration.ofHours(1)),
+			PRODUCT_ID + ":2000000:999999999999.99");
+
+		assertThat(awaitPlaced(List.of(poison))).containsExactly(OrderStatus.CANCELED);
+		assertThat(orderService.findById(poison).getCancelReason()).isEqualTo("Order could not be placed");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_pending_order WHERE id = ?", Integer.class, poison))
+			.isZero();
+	}
+
+	@Test
+	void orderShouldBeRetriedAndNotCanceledWhenTheDatabaseFails() throws Exception {
+		// a conexão cai no meio do comando: não é TransientDataAccessException, nem culpa do pedido
+		doThrow(new DataAccessResourceFailureException("Connection reset"))
+			.doThrow(new DataAccessResourceFailureException("Connection reset"))
+			.doCallRealMethod()
+			.when(pendingOrderWriter).write(argThat(batch -> batch.stream()
+				.anyMatch(order -> order.getItems().getFirst().getQuantity() == 7)));
+		Long order = insertPending("crashed-replica", Instant.now().minus(Duration.ofHours(1)), PRODUCT_ID + ":7:10.00");
+
+		assertThat(awaitPlaced(List.of(order))).containsExactly(OrderStatus.WAITING_PAYMENT);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_pending_order WHERE id = ?", Integer.class, order))
+			.isZero();
+	}
+
+	@Test
+	void idempotencyKeyShouldNotBeKeptWhenThePendingOrderIsNotStored() throws Exception {
+		// a gravação do pedido pendente falha depois da chave: a chave não pode sobrar apontando para ele
+		doThrow(new DataAccessResourceFailureException("Connection reset"))
+			.doCallRealMethod()
+			.when(pendingOrderStore).save(any());
+
+		assertThatThrownBy(() -> orderService.enqueue(newOrderOf(PRODUCT_ID, 1), "store-fails"))
+			.isInstanceOf(DataAccessResourceFailureException.class);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_idempotency_key WHERE id LIKE '%:store-fails'",
+			Integer.class)).isZero();
+
+		OrderDTO accepted = orderService.enqueue(newOrderOf(PRODUCT_ID, 1), "store-fails");
+		assertThat(awaitPlaced(List.of(accepted.getId()))).containsExactly(OrderStatus.WAITING_PAYMENT);
+		assertThat(orderService.enqueue(newOrderOf(PRODUCT_ID, 1), "store-fails").getId()).isEqualTo(accepted.getId());
+	}
+
+	// Pedido aceito por outra instância que ficou em tb_pending_order
+	private Long insertPending(String owner, Instant claimedAt, String items) {
+		Long id = placementQueue.nextOrderId();
+		jdbcTemplate.update("INSERT INTO tb_pending_order (id, client_id, client_name, moment, items, owner, claimed_at)"
+			+ " VALUES (?, 1, 'Maria Brown', ?, ?, ?, ?)", id, Timestamp.from(claimedAt), items, owner, Timestamp.from(claimedAt));
+		return id;
+	}
+
+	private List<OrderStatus> awaitPlaced(List<Long> ids) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (true) {
+			List<OrderStatus> statuses = ids.stream().map(id -> orderService.findById(id).getStatus()).toList();
+			if (!statuses.contains(OrderStatus.PENDING) || System.currentTimeMillis() > deadline) {
+				return statuses;
+			}
+			Thread.sleep(50);
+		}
+	}
+
+	private static OrderDTO newOrderOf(long productId, int quantity) {
+		OrderDTO dto = new OrderDTO();
+		dto.getItems().add(new OrderItemDTO(productId, null, null, quantity, null));
+		return dto;
+	}
+
+	private static void authenticate(String username) {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", username).build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.dscommerce.services.search;
+
+import com.example.dscommerce.dto.CategoryDTO;
+import com.example.dscommerce.dto.ProductDTO;
+import com.example.dscommerce.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco próprio: os testes cadastram e removem produtos
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:searchindexdb",
+	"product.search.mode=index"
+})
+@ActiveProfiles("test")
+class ProductSearchIndexTests {
+
+	private static final long PC_GAMER_TERA = 9L;
+	private static final long MACBOOK_PRO = 3L;
+
+	@Autowired
+	private ProductSearchIndex searchIndex;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void searchShouldIgnoreAccentsAndCase() {
+		Long id = productService.insert(newProduct("Câmera Ótica Profissional")).getId();
+
+		assertThat(search("CAMERA otica")).containsExactly(id);
+		assertThat(search("câmera")).containsExactly(id);
+	}
+
+	@Test
+	void searchShouldMatchWordPrefixesAndRankExactTermsFirst() {
+		Long prefixOnly = productService.insert(newProduct("Terabyte Storage Kit")).getId();
+
+		assertThat(search("tera")).containsExactly(PC_GAMER_TERA, prefixOnly);
+		// prefixo de palavra, não substring: diferente do LIKE '%book%'
+		assertThat(search("mac")).contains(MACBOOK_PRO);
+		assertThat(search("book")).doesNotContain(MACBOOK_PRO);
+	}
+
+	@Test
+	void indexShouldFollowCommittedInsertUpdateAndDelete() {
+		Long id = productService.insert(newProduct("Quantum Keyboard")).getId();
+		assertThat(search("quantum")).containsExactly(id);
+
+		productService.update(id, newProduct("Photon Keyboard"));
+		assertThat(search("quantum")).isEmpty();
+		assertThat(search("photon")).containsExactly(id);
+
+		productService.delete(id);
+		assertThat(search("photon")).isEmpty();
+	}
+
+	@Test
+	void searchShouldReturnAnEmptyPageBeyondTheHits() {
+		Page<Long> page = searchIndex.search("tera", PageRequest.of(Integer.MAX_VALUE - 1, 20));
+
+		assertThat(page.getContent()).isEmpty();
+		assertThat(page.getTotalElements()).isPositive();
+	}
+
+	private List<Long> search(String text) {
+		return searchIndex.search(text, PageRequest.of(0, 10)).getContent();
+	}
+
+	private static ProductDTO newProduct(String name) {
+		ProductDTO dto = new ProductDTO(null, name, "Product created by the search tests", new BigDecimal("10.00"), null);
+		dto.getCategories().add(new CategoryDTO(1L, null));
+		return dto;
+	}
+}
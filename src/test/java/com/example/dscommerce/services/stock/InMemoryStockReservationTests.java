@@ -0,0 +1,171 @@
+package com.example.dscommerce.services.stock;
+
+import com.example.dscommerce.dto.OrderDTO;
+import com.example.dscommerce.dto.OrderItemDTO;
+import com.example.dscommerce.services.OrderService;
+import com.example.dscommerce.services.exceptions.InsufficientStockException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco próprio: este contexto recria o schema e não pode interferir nos outros testes
+@SpringBootTest(properties = {
+	"stock.reservation.mode=memory",
+	"stock.reservation.flush-interval=1h",
+	"spring.datasource.url=jdbc:h2:mem:stockreservationdb"
+})
+@ActiveProfiles("test")
+class InMemoryStockReservationTests {
+
+	private static final long PRODUCT_ID = 24L;
+	private static final long SOLD_OUT_PRODUCT_ID = 23L;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private InMemoryStockReservation stockReservation;
+
+	@Autowired
+	private StockWriterJob stockWriterJob;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void tearDown() {
+		stockWriterJob.flushPending();
+		jdbcTemplate.update("UPDATE tb_product SET stock = NULL WHERE id IN (?, ?)", PRODUCT_ID, SOLD_OUT_PRODUCT_ID);
+		stockReservation.rebuild();
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void restartWithPendingOrdersShouldNotOversell() throws Exception {
+		int stock = 10;
+		int ordersBeforeCrash = 6;
+		int checkoutsAfterRestart = 20;
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", stock, PRODUCT_ID);
+		stockReservation.rebuild();
+
+		for (int i = 0; i < ordersBeforeCrash; i++) {
+			checkout();
+		}
+		// reservas feitas só na memória; tb_product ainda não recebeu nenhuma baixa
+		assertThat(databaseStock()).isEqualTo(stock);
+
+		// queda antes do writer: os contadores se perdem e a inicialização os reconstrói do banco
+		stockReservation.rebuild();
+		assertThat(stockReservation.available(PRODUCT_ID)).hasValue(stock - ordersBeforeCrash);
+
+		AtomicInteger accepted = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int i = 0; i < checkoutsAfterRestart; i++) {
+			tasks.add(() -> {
+				try {
+					checkout();
+					accepted.incrementAndGet();
+				} catch (InsufficientStockException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			for (Future<Void> result : executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(accepted.get()).isEqualTo(stock - ordersBeforeCrash);
+		assertThat(rejected.get()).isEqualTo(checkoutsAfterRestart - accepted.get());
+
+		stockWriterJob.flushPending();
+		assertThat(databaseStock()).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_order WHERE stock_applied = FALSE", Integer.class)).isZero();
+	}
+
+	@Test
+	void rejectedOrderShouldReleaseItsOtherReservations() {
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", 1, PRODUCT_ID);
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", 0, SOLD_OUT_PRODUCT_ID);
+		stockReservation.rebuild();
+
+		authenticate("maria@gmail.com");
+		OrderDTO dto = new OrderDTO();
+		dto.getItems().add(new OrderItemDTO(SOLD_OUT_PRODUCT_ID, null, null, 1, null));
+		dto.getItems().add(new OrderItemDTO(PRODUCT_ID, null, null, 1, null));
+		try {
+			orderService.insert(dto);
+		} catch (InsufficientStockException e) {
+			// esperado: um dos produtos está esgotado
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+
+		assertThat(stockReservation.available(PRODUCT_ID)).hasValue(1);
+		assertThat(stockReservation.available(SOLD_OUT_PRODUCT_ID)).hasValue(0);
+	}
+
+	@Test
+	void flushShouldReportInsteadOfClampingStockReducedBelowPendingSales() {
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", 5, PRODUCT_ID);
+		stockReservation.rebuild();
+		for (int i = 0; i < 3; i++) {
+			checkout();
+		}
+		double shortfallsBefore = meterRegistry.counter("stock.apply.shortfall").count();
+
+		// cadastro reduz o saldo enquanto as 3 baixas ainda estão pendentes
+		jdbcTemplate.update("UPDATE tb_product SET stock = ? WHERE id = ?", 2, PRODUCT_ID);
+		stockWriterJob.flushPending();
+
+		assertThat(databaseStock()).isEqualTo(2);
+		assertThat(meterRegistry.counter("stock.apply.shortfall").count()).isEqualTo(shortfallsBefore + 1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_order WHERE stock_applied = FALSE", Integer.class)).isZero();
+	}
+
+	private void checkout() {
+		authenticate("maria@gmail.com");
+		try {
+			OrderDTO dto = new OrderDTO();
+			dto.getItems().add(new OrderItemDTO(PRODUCT_ID, null, null, 1, null));
+			orderService.insert(dto);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private Integer databaseStock() {
+		return jdbcTemplate.queryForObject("SELECT stock FROM tb_product WHERE id = ?", Integer.class, PRODUCT_ID);
+	}
+
+	private static void authenticate(String username) {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", username).build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+}